@@ -0,0 +1,217 @@
+package com.kevinnguyen.weekchartview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.View;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * WeekChartDrawBenchmark
+ * <p>
+ * On device benchmarks of spline building, label measurement and full draws, for 7, 1k and 100k points
+ * and several view sizes. Every case is warmed up, then the median and min time of the measured runs
+ * are written to weekchart-benchmark.json in the external files dir of the test app.
+ * <p>
+ * Run with ./gradlew :weekchartview:connectedAndroidTest on a device with a locked clock.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WeekChartDrawBenchmark {
+
+    private static final String TAG = "WeekChartBenchmark";
+    private static final String RESULT_FILE = "weekchart-benchmark.json";
+
+    private static final int[] POINT_COUNTS = {7, 1000, 100000};
+    private static final int[][] VIEW_SIZES = {{360, 240}, {720, 480}, {1440, 960}};
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 50;
+
+    private static JSONArray sResults;
+
+    /**
+     * Measured block
+     */
+    private interface Block {
+        void run();
+    }
+
+    /**
+     * Start empty results
+     */
+    @BeforeClass
+    public static void setupResults() {
+        sResults = new JSONArray();
+    }
+
+    /**
+     * Write results of all benchmarks to the external files dir
+     *
+     * @throws IOException if results can not be written
+     */
+    @AfterClass
+    public static void writeResults() throws IOException {
+        Context context = InstrumentationRegistry.getTargetContext();
+        File file = new File(context.getExternalFilesDir(null), RESULT_FILE);
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(sResults.toString());
+        } finally {
+            writer.close();
+        }
+        Log.i(TAG, "results written to " + file.getAbsolutePath());
+    }
+
+    @Test
+    public void buildGeometry() throws JSONException {
+        for (int pointCount : POINT_COUNTS) {
+            for (int[] size : VIEW_SIZES) {
+                final float[] amounts = createAmounts(pointCount);
+                final WeekChartRenderer renderer = createRenderer(size);
+                measure("buildGeometry", pointCount, size, new Block() {
+                    @Override
+                    public void run() {
+                        renderer.setAmounts(amounts);
+                        renderer.updateGeometry();
+                        renderer.getPathVersion();
+                    }
+                });
+            }
+        }
+    }
+
+    @Test
+    public void measureLabels() throws JSONException {
+        final WeekChartStyle style = WeekChartStyle.getDefault(InstrumentationRegistry.getTargetContext());
+        for (int[] size : VIEW_SIZES) {
+            final Canvas canvas = new Canvas(Bitmap.createBitmap(size[0], size[1], Bitmap.Config.ARGB_8888));
+            final LabelLayout layout = new LabelLayout();
+            layout.setLabels(style.getLabels());
+            layout.setGeometry(size[0] / 14, size[0] / 7, size[1]);
+            measure("measureLabels", style.getLabels().length, size, new Block() {
+                @Override
+                public void run() {
+                    layout.invalidate();
+                    layout.draw(canvas, style.getTextPaint());
+                }
+            });
+        }
+    }
+
+    @Test
+    public void renderChart() throws JSONException {
+        for (int pointCount : POINT_COUNTS) {
+            for (int[] size : VIEW_SIZES) {
+                final WeekChartRenderer renderer = createRenderer(size);
+                renderer.setAmounts(createAmounts(pointCount));
+                final Bitmap bitmap = renderer.render(null);
+                measure("renderChart", pointCount, size, new Block() {
+                    @Override
+                    public void run() {
+                        renderer.render(bitmap);
+                    }
+                });
+            }
+        }
+    }
+
+    @Test
+    public void drawView() throws JSONException {
+        Context context = InstrumentationRegistry.getTargetContext();
+        for (int pointCount : POINT_COUNTS) {
+            for (int[] size : VIEW_SIZES) {
+                final WeekChartView view = new WeekChartView(context);
+                view.setAnimationEnable(false);
+                view.setAmounts(createAmounts(pointCount));
+                view.measure(View.MeasureSpec.makeMeasureSpec(size[0], View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(size[1], View.MeasureSpec.EXACTLY));
+                view.layout(0, 0, size[0], size[1]);
+                final Canvas canvas = new Canvas(Bitmap.createBitmap(size[0], size[1], Bitmap.Config.ARGB_8888));
+                measure("drawView", pointCount, size, new Block() {
+                    @Override
+                    public void run() {
+                        view.draw(canvas);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Create renderer of view size
+     *
+     * @param size width and height
+     * @return renderer
+     */
+    private static WeekChartRenderer createRenderer(int[] size) {
+        WeekChartRenderer renderer = new WeekChartRenderer(
+                WeekChartStyle.getDefault(InstrumentationRegistry.getTargetContext()));
+        renderer.setSize(size[0], size[1]);
+        return renderer;
+    }
+
+    /**
+     * Create random amounts, seeded by count so runs are comparable
+     *
+     * @param count count
+     * @return amounts
+     */
+    private static float[] createAmounts(int count) {
+        Random random = new Random(count);
+        float[] amounts = new float[count];
+        for (int i = 0; i < count; i++) {
+            amounts[i] = random.nextFloat() * 1000;
+        }
+        return amounts;
+    }
+
+    /**
+     * Warm up and measure block, result is added to results
+     *
+     * @param name       benchmark name
+     * @param pointCount point count
+     * @param size       view width and height
+     * @param block      block
+     * @throws JSONException if result can not be written
+     */
+    private static void measure(String name, int pointCount, int[] size, Block block) throws JSONException {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            block.run();
+        }
+        long[] nanos = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            block.run();
+            nanos[i] = SystemClock.elapsedRealtimeNanos() - start;
+        }
+        Arrays.sort(nanos);
+
+        JSONObject result = new JSONObject();
+        result.put("benchmark", name);
+        result.put("points", pointCount);
+        result.put("width", size[0]);
+        result.put("height", size[1]);
+        result.put("runs", MEASURED_RUNS);
+        result.put("medianNanos", nanos[MEASURED_RUNS / 2]);
+        result.put("minNanos", nanos[0]);
+        sResults.put(result);
+        Log.i(TAG, result.toString());
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.kevinnguyen.weekchartview;
+
+import android.graphics.Paint;
+
+import com.kevinnguyen.weekchartview.core.FloatRingBuffer;
+import com.kevinnguyen.weekchartview.core.FloatSeries;
+
+/**
+ * ChartSeries
+ * <p>
+ * One line of the chart: amounts, cached curve paths and line paint.
+ * Background, labels and x mapping are shared by all series of a view.
+ * <p>
+ * Amounts are kept in an own buffer, or read from a source such as a memory mapped file.
+ */
+class ChartSeries {
+
+    // amounts and cached paths
+    private final FloatRingBuffer mAmounts = new FloatRingBuffer();
+    private final CurvePathCache mPathCache = new CurvePathCache();
+
+    // source of amounts, null when own buffer is used
+    private FloatSeries mSource;
+
+    // line paint
+    private Paint mLinePaint;
+
+    /**
+     * Constructor
+     *
+     * @param linePaint line paint
+     */
+    ChartSeries(Paint linePaint) {
+        mLinePaint = linePaint;
+        mPathCache.setAmounts(mAmounts);
+    }
+
+    /**
+     * Get own amounts to change them, source is not used anymore
+     *
+     * @return amounts
+     */
+    FloatRingBuffer getAmounts() {
+        if (mSource != null) {
+            mSource = null;
+            mPathCache.setAmounts(mAmounts);
+        }
+        return mAmounts;
+    }
+
+    /**
+     * Get amounts which are drawn
+     *
+     * @return source if it is set, otherwise own amounts
+     */
+    FloatSeries getSeries() {
+        return mSource != null ? mSource : mAmounts;
+    }
+
+    /**
+     * Set source of amounts, it is read directly and not copied, own amounts are cleared
+     *
+     * @param source source
+     */
+    void setSource(FloatSeries source) {
+        mSource = source;
+        mAmounts.clear();
+        mPathCache.setAmounts(source);
+        mPathCache.invalidate();
+    }
+
+    /**
+     * Get path cache
+     *
+     * @return path cache
+     */
+    CurvePathCache getPathCache() {
+        return mPathCache;
+    }
+
+    /**
+     * Get line paint
+     *
+     * @return line paint
+     */
+    Paint getLinePaint() {
+        return mLinePaint;
+    }
+
+    /**
+     * Set line paint
+     *
+     * @param linePaint line paint
+     */
+    void setLinePaint(Paint linePaint) {
+        mLinePaint = linePaint;
+    }
+
+    /**
+     * Set async geometry enable
+     *
+     * @param enable   enable
+     * @param callback callback of geometry worker
+     */
+    void setAsyncGeometryEnable(boolean enable, GeometryWorker.Callback callback) {
+        mPathCache.setWorker(enable ? new GeometryWorker(callback) : null);
+    }
+
+}
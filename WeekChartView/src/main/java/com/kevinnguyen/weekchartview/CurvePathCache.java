@@ -0,0 +1,475 @@
+package com.kevinnguyen.weekchartview;
+
+import android.graphics.Path;
+
+import com.kevinnguyen.weekchartview.core.CurveGeometry;
+import com.kevinnguyen.weekchartview.core.FloatSeries;
+import com.kevinnguyen.weekchartview.core.PointMapper;
+import com.kevinnguyen.weekchartview.core.SeriesDecimator;
+
+/**
+ * CurvePathCache
+ * <p>
+ * Computes the smooth line of the chart once and keeps the line and area paths
+ * until the amounts or the geometry of the view are changed.
+ * <p>
+ * Long series are decimated to at most two points per horizontal pixel before the spline is built.
+ * When a {@link GeometryWorker} is set, the geometry is built on the worker thread and the
+ * paths are only replayed from the newest ready geometry.
+ * <p>
+ * When a viewport is set, only the visible window plus a small margin for the spline is built,
+ * so the cost depends on the window length instead of the series length.
+ * <p>
+ * Morphing interpolates the points of the previous and the new geometry in preallocated arrays,
+ * only control points and paths are computed again for every fraction.
+ * <p>
+ * Live mode builds only the newest segments of a stream into separate paths, the cached paths are
+ * rebuilt lazily when they are needed again.
+ */
+class CurvePathCache {
+
+    // points built outside each side of the viewport, so the spline is right at the edges
+    private static final int WINDOW_MARGIN = 2;
+
+    // cached paths
+    private final Path mLinePath = new Path();
+    private final Path mAreaPath = new Path();
+
+    // geometry of current paths, only used by UI thread
+    private CurveGeometry mGeometry = new CurveGeometry();
+
+    // worker, null when geometry is built on UI thread
+    private GeometryWorker mWorker;
+
+    // amounts
+    private FloatSeries mAmounts;
+
+    // geometry key
+    private int mStartX;
+    private int mPlotWidth;
+    private int mColumnTopY;
+    private int mMaxColumnHeight;
+    private int mAreaTop;
+    private int mAreaRight;
+    private int mAreaBottom;
+
+    // viewport, length 0 shows all amounts
+    private float mViewportStart;
+    private float mViewportLength;
+
+    // window of amounts, computed from viewport before build
+    private int mWindowFrom;
+    private int mWindowLength;
+    private float mWindowStartX;
+    private float mPointSpace;
+
+    // scale, shared by all series of a chart
+    private float mBaseline;
+    private float mRange;
+
+    // need to rebuild paths
+    private boolean mDirty = true;
+
+    // increased every time paths are rebuilt
+    private int mVersion;
+
+    // morph points
+    private float[] mMorphFromX = new float[0];
+    private float[] mMorphFromY = new float[0];
+    private float[] mMorphToX = new float[0];
+    private float[] mMorphToY = new float[0];
+    private int mMorphCount;
+    private boolean mMorphing;
+
+    // points and control points of newest segments
+    private float[] mSegmentValues = new float[0];
+    private float[] mSegmentX = new float[0];
+    private float[] mSegmentY = new float[0];
+    private float[] mSegmentFirstControlX = new float[0];
+    private float[] mSegmentFirstControlY = new float[0];
+    private float[] mSegmentSecondControlX = new float[0];
+    private float[] mSegmentSecondControlY = new float[0];
+
+    // number of times morph and segment arrays are created again
+    private int mAllocationCount;
+
+    /**
+     * Set amounts, paths will be rebuilt on next access
+     *
+     * @param amounts amounts
+     */
+    void setAmounts(FloatSeries amounts) {
+        mAmounts = amounts;
+        invalidate();
+    }
+
+    /**
+     * Amounts are changed, paths will be rebuilt on next access
+     */
+    void invalidate() {
+        mDirty = true;
+    }
+
+    /**
+     * Set worker
+     *
+     * @param worker worker, or null to build geometry on UI thread
+     */
+    void setWorker(GeometryWorker worker) {
+        mWorker = worker;
+        invalidate();
+    }
+
+    /**
+     * Set scale, paths are only invalidated if it is changed
+     *
+     * @param baseline amount drawn at the bottom of columns
+     * @param range    range from baseline to max amount
+     */
+    void setScale(float baseline, float range) {
+        if (baseline == mBaseline && range == mRange) {
+            return;
+        }
+        mBaseline = baseline;
+        mRange = range;
+        invalidate();
+    }
+
+    /**
+     * Set viewport, paths are only invalidated if it is changed
+     *
+     * @param start  index at the left of plot
+     * @param length number of indices between left and right of plot, 0 to show all amounts
+     */
+    void setViewport(float start, float length) {
+        if (start == mViewportStart && length == mViewportLength) {
+            return;
+        }
+        mViewportStart = start;
+        mViewportLength = length;
+        invalidate();
+    }
+
+    /**
+     * Set geometry, paths are only invalidated if something is changed
+     *
+     * @param startX          x position of first point
+     * @param plotWidth       width between first and last point
+     * @param columnTopY      y position of the top of columns
+     * @param maxColumnHeight max column height
+     * @param areaTop         top of area
+     * @param areaRight       right of area
+     * @param areaBottom      bottom of area
+     */
+    void setGeometry(int startX, int plotWidth, int columnTopY, int maxColumnHeight, int areaTop, int areaRight, int areaBottom) {
+        if (startX == mStartX && plotWidth == mPlotWidth && columnTopY == mColumnTopY && maxColumnHeight == mMaxColumnHeight
+                && areaTop == mAreaTop && areaRight == mAreaRight && areaBottom == mAreaBottom) {
+            return;
+        }
+        mStartX = startX;
+        mPlotWidth = plotWidth;
+        mColumnTopY = columnTopY;
+        mMaxColumnHeight = maxColumnHeight;
+        mAreaTop = areaTop;
+        mAreaRight = areaRight;
+        mAreaBottom = areaBottom;
+        invalidate();
+    }
+
+    /**
+     * Get baseline of scale
+     *
+     * @return amount drawn at the bottom of columns
+     */
+    float getBaseline() {
+        return mBaseline;
+    }
+
+    /**
+     * Get range of scale
+     *
+     * @return range from baseline to max amount
+     */
+    float getRange() {
+        return mRange;
+    }
+
+    /**
+     * Get line path
+     *
+     * @return line path
+     */
+    Path getLinePath() {
+        rebuildIfNeeded();
+        return mLinePath;
+    }
+
+    /**
+     * Get area path, the area below the line which is filled by gradient
+     *
+     * @return area path
+     */
+    Path getAreaPath() {
+        rebuildIfNeeded();
+        return mAreaPath;
+    }
+
+    /**
+     * Get geometry of current paths, it must not be kept because it is reused
+     *
+     * @return geometry
+     */
+    CurveGeometry getGeometry() {
+        rebuildIfNeeded();
+        return mGeometry;
+    }
+
+    /**
+     * Get version of paths, rebuild paths first if needed
+     *
+     * @return version, it is changed every time paths are rebuilt
+     */
+    int getVersion() {
+        rebuildIfNeeded();
+        return mVersion;
+    }
+
+    /**
+     * Get number of times arrays of this cache and its geometries are created again
+     *
+     * @return allocation count
+     */
+    int getAllocationCount() {
+        int count = mAllocationCount + mGeometry.getAllocationCount();
+        if (mWorker != null) {
+            count += mWorker.getAllocationCount();
+        }
+        return count;
+    }
+
+    /**
+     * Keep current points as start of a morph, call it before amounts are changed
+     *
+     * @return true if there are points to morph from
+     */
+    boolean prepareMorph() {
+        mMorphing = false;
+        mMorphCount = 0;
+        if (mWorker != null) {
+            return false;
+        }
+        rebuildIfNeeded();
+        int count = mGeometry.getCount();
+        if (count == 0) {
+            return false;
+        }
+        if (mMorphFromX.length < count) {
+            mMorphFromX = new float[count];
+            mMorphFromY = new float[count];
+            mMorphToX = new float[count];
+            mMorphToY = new float[count];
+            mAllocationCount++;
+        }
+        mGeometry.copyPoints(mMorphFromX, mMorphFromY);
+        mMorphCount = count;
+        return true;
+    }
+
+    /**
+     * Start morph to the new amounts, paths are set to the start of the morph
+     *
+     * @return true if morph is started, false if point counts are different
+     */
+    boolean startMorph() {
+        rebuildIfNeeded();
+        if (mMorphCount == 0 || mGeometry.getCount() != mMorphCount) {
+            return false;
+        }
+        mGeometry.copyPoints(mMorphToX, mMorphToY);
+        mMorphing = true;
+        setMorphFraction(0f);
+        return true;
+    }
+
+    /**
+     * Set morph fraction, paths are rebuilt from interpolated points
+     *
+     * @param fraction fraction from old to new amounts
+     */
+    void setMorphFraction(float fraction) {
+        if (!mMorphing) {
+            return;
+        }
+        mGeometry.setPoints(mMorphFromX, mMorphFromY, mMorphToX, mMorphToY, fraction);
+        fillPaths();
+        mVersion++;
+        if (fraction >= 1f) {
+            mMorphing = false;
+        }
+    }
+
+    /**
+     * Build line and area paths of the newest segments of all amounts, the cached paths are not changed.
+     * Only the last points are mapped, so the cost does not depend on the number of amounts
+     *
+     * @param segmentCount number of newest segments
+     * @param linePath     output line path
+     * @param areaPath     output area path
+     * @return x position where the segments start, or NaN if a viewport is set, there are not enough
+     * amounts or all amounts would be decimated
+     */
+    float buildNewestSegments(int segmentCount, Path linePath, Path areaPath) {
+        linePath.rewind();
+        areaPath.rewind();
+        // one more point is the outer neighbor of the first segment
+        int count = segmentCount + 2;
+        int size = mAmounts != null ? mAmounts.size() : 0;
+        if (mViewportLength > 0 || segmentCount <= 0 || size < count) {
+            return Float.NaN;
+        }
+        float pointSpace = mPlotWidth / (float) (size - 1);
+        int bucketCount = Math.max(1, Math.round((size - 1) * pointSpace));
+        if (SeriesDecimator.getOutputSize(size, bucketCount) != size) {
+            return Float.NaN;
+        }
+        if (mSegmentX.length < count) {
+            mSegmentValues = new float[count];
+            mSegmentX = new float[count];
+            mSegmentY = new float[count];
+            mSegmentFirstControlX = new float[count];
+            mSegmentFirstControlY = new float[count];
+            mSegmentSecondControlX = new float[count];
+            mSegmentSecondControlY = new float[count];
+            mAllocationCount++;
+        }
+
+        // same mapping as the whole geometry, so segments match the cached paths
+        int from = size - count;
+        for (int i = 0; i < count; i++) {
+            mSegmentValues[i] = mAmounts.get(from + i);
+            mSegmentX[i] = (from + i) * pointSpace + mStartX;
+        }
+        PointMapper.mapY(mSegmentValues, count, mBaseline, mRange, mColumnTopY, mMaxColumnHeight, mSegmentY);
+        CurveGeometry.computeControlPoints(mSegmentX, mSegmentY, count, mSegmentFirstControlX, mSegmentFirstControlY,
+                mSegmentSecondControlX, mSegmentSecondControlY);
+
+        // create line path, segment of the neighbor point is skipped
+        linePath.moveTo(mSegmentX[1], mSegmentY[1]);
+        for (int i = 1; i < count - 1; i++) {
+            linePath.cubicTo(mSegmentFirstControlX[i], mSegmentFirstControlY[i],
+                    mSegmentSecondControlX[i], mSegmentSecondControlY[i],
+                    mSegmentX[i + 1], mSegmentY[i + 1]);
+        }
+
+        // area of segments, built like the area of all amounts
+        float left = mSegmentX[1];
+        float right = mSegmentX[count - 1];
+        areaPath.set(linePath);
+        areaPath.lineTo(right, mAreaTop);
+        areaPath.lineTo(right, mAreaBottom);
+        areaPath.lineTo(left, mAreaBottom);
+        areaPath.close();
+        return left;
+    }
+
+    /**
+     * Submit build request to worker if there is a worker and amounts are changed
+     */
+    private void submitIfNeeded() {
+        if (mWorker == null || !mDirty || mAmounts == null) {
+            return;
+        }
+        mDirty = false;
+        computeWindow();
+        mWorker.submit(mAmounts, mWindowFrom, mWindowLength, mBaseline, mRange, mWindowStartX, mPointSpace,
+                mColumnTopY, mMaxColumnHeight);
+    }
+
+    /**
+     * Compute window of amounts and x mapping from viewport
+     */
+    private void computeWindow() {
+        int size = mAmounts.size();
+        float start = 0;
+        float length = size - 1;
+        if (mViewportLength > 0) {
+            start = mViewportStart;
+            length = mViewportLength;
+        }
+        mPointSpace = length > 0 ? mPlotWidth / length : 0;
+        mWindowFrom = Math.max(0, (int) Math.floor(start) - WINDOW_MARGIN);
+        int to = Math.min(size - 1, (int) Math.ceil(start + length) + WINDOW_MARGIN);
+        mWindowLength = Math.max(0, to - mWindowFrom + 1);
+        mWindowStartX = mStartX + (mWindowFrom - start) * mPointSpace;
+    }
+
+    /**
+     * Rebuild line and overlay paths if needed
+     */
+    private void rebuildIfNeeded() {
+        if (mWorker != null) {
+            // only replay newest geometry of worker
+            submitIfNeeded();
+            CurveGeometry ready = mWorker.takeReady(mGeometry);
+            if (ready != null) {
+                mGeometry = ready;
+                fillPaths();
+                mVersion++;
+            }
+            return;
+        }
+        if (!mDirty) {
+            return;
+        }
+        mDirty = false;
+        mMorphing = false;
+        mVersion++;
+        if (mAmounts == null) {
+            mLinePath.rewind();
+            mAreaPath.rewind();
+            return;
+        }
+        computeWindow();
+        mGeometry.build(mAmounts, mWindowFrom, mWindowLength, mBaseline, mRange, mWindowStartX, mPointSpace,
+                mColumnTopY, mMaxColumnHeight);
+        fillPaths();
+    }
+
+    /**
+     * Replay geometry into line and area paths, the area is everything of the area rect
+     * which is not above the line
+     */
+    private void fillPaths() {
+        CurveGeometry geometry = mGeometry;
+        mLinePath.rewind();
+        mAreaPath.rewind();
+        int count = geometry.getCount();
+        if (count == 0) {
+            return;
+        }
+
+        // create line path
+        mLinePath.moveTo(geometry.getPointX(0), geometry.getPointY(0));
+        for (int i = 0; i < count - 1; i++) {
+            mLinePath.cubicTo(geometry.getFirstControlX(i), geometry.getFirstControlY(i),
+                    geometry.getSecondControlX(i), geometry.getSecondControlY(i),
+                    geometry.getPointX(i + 1), geometry.getPointY(i + 1));
+        }
+
+        // points of window margin can be outside of area
+        float left = Math.min(mStartX, geometry.getPointX(0));
+        float right = Math.max(mAreaRight, geometry.getPointX(count - 1));
+
+        // area starts with the same curve
+        mAreaPath.set(mLinePath);
+        // move to right top
+        mAreaPath.lineTo(right, mAreaTop);
+        // move to right bottom
+        mAreaPath.lineTo(right, mAreaBottom);
+        // move to left bottom
+        mAreaPath.lineTo(left, mAreaBottom);
+        // move to first point
+        mAreaPath.close();
+    }
+
+}
@@ -0,0 +1,224 @@
+package com.kevinnguyen.weekchartview;
+
+import com.kevinnguyen.weekchartview.core.CurveGeometry;
+import com.kevinnguyen.weekchartview.core.FloatRingBuffer;
+import com.kevinnguyen.weekchartview.core.FloatSeries;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * GeometryWorker
+ * <p>
+ * Builds {@link CurveGeometry} on a background thread shared by all charts.
+ * Three geometries are rotated: the worker writes the back one, publishes it as ready,
+ * and the UI thread takes the ready one in exchange for the one it has finished with,
+ * so no geometry is ever read and written at the same time.
+ * <p>
+ * Requests submitted while a build is running are coalesced, only the newest one is built.
+ * <p>
+ * Amounts of a {@link FloatRingBuffer} are copied because the chart keeps changing them, any other
+ * series must not be changed while it is set, so it is read by the worker without a copy.
+ */
+class GeometryWorker {
+
+    /**
+     * Callback, called on the worker thread when a new geometry is ready
+     */
+    interface Callback {
+        void onGeometryReady();
+    }
+
+    // shared worker thread
+    private static ExecutorService sExecutor;
+
+    // lock of pending request and ready geometry
+    private final Object mLock = new Object();
+    private final Callback mCallback;
+
+    // pending request, guarded by lock, source is null when amounts are copied
+    private FloatRingBuffer mPendingAmounts = new FloatRingBuffer();
+    private FloatSeries mPendingSource;
+    private int mPendingFrom;
+    private int mPendingLength;
+    private float mPendingBaseline;
+    private float mPendingRange;
+    private float mPendingStartX;
+    private float mPendingPointSpace;
+    private int mPendingColumnTopY;
+    private int mPendingMaxColumnHeight;
+    private boolean mHasPending;
+    private boolean mRunning;
+
+    // ready geometry, guarded by lock
+    private CurveGeometry mReady = new CurveGeometry();
+    private boolean mHasReady;
+
+    // only used by worker thread
+    private FloatRingBuffer mWorkAmounts = new FloatRingBuffer();
+    private CurveGeometry mBack = new CurveGeometry();
+
+    // build task
+    private final Runnable mBuildTask = new Runnable() {
+        @Override
+        public void run() {
+            buildPending();
+        }
+    };
+
+    /**
+     * Constructor
+     *
+     * @param callback callback
+     */
+    GeometryWorker(Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * Submit a build request, only the window of a ring buffer is copied so the caller can keep changing it,
+     * other series are read by reference
+     *
+     * @param amounts         amounts, a series other than a ring buffer must not be changed
+     * @param from            first index of window
+     * @param length          length of window
+     * @param baseline        amount drawn at the bottom of columns
+     * @param range           range from baseline to max amount
+     * @param startX          x position of first point of window
+     * @param pointSpace      width between two points
+     * @param columnTopY      y position of the top of columns
+     * @param maxColumnHeight max column height
+     */
+    void submit(FloatSeries amounts, int from, int length, float baseline, float range, float startX, float pointSpace,
+                int columnTopY, int maxColumnHeight) {
+        synchronized (mLock) {
+            if (amounts instanceof FloatRingBuffer) {
+                mPendingAmounts.copyFrom(amounts, from, length);
+                mPendingSource = null;
+            } else {
+                mPendingSource = amounts;
+                mPendingFrom = from;
+                mPendingLength = length;
+            }
+            mPendingBaseline = baseline;
+            mPendingRange = range;
+            mPendingStartX = startX;
+            mPendingPointSpace = pointSpace;
+            mPendingColumnTopY = columnTopY;
+            mPendingMaxColumnHeight = maxColumnHeight;
+            mHasPending = true;
+
+            // running task will pick up the new request
+            if (mRunning) {
+                return;
+            }
+            mRunning = true;
+        }
+        getExecutor().execute(mBuildTask);
+    }
+
+    /**
+     * Take ready geometry
+     *
+     * @param consumed geometry the caller has finished with, it is reused by the worker
+     * @return ready geometry, or null if there is no new geometry
+     */
+    CurveGeometry takeReady(CurveGeometry consumed) {
+        synchronized (mLock) {
+            if (!mHasReady) {
+                return null;
+            }
+            CurveGeometry ready = mReady;
+            mReady = consumed;
+            mHasReady = false;
+            return ready;
+        }
+    }
+
+    /**
+     * Get number of times arrays of worker geometries are created again
+     *
+     * @return allocation count
+     */
+    int getAllocationCount() {
+        synchronized (mLock) {
+            return mReady.getAllocationCount() + mBack.getAllocationCount();
+        }
+    }
+
+    /**
+     * Build pending requests until there is none, runs on worker thread
+     */
+    private void buildPending() {
+        while (true) {
+            FloatSeries source;
+            int from;
+            int length;
+            float baseline;
+            float range;
+            float startX;
+            float pointSpace;
+            int columnTopY;
+            int maxColumnHeight;
+            synchronized (mLock) {
+                if (!mHasPending) {
+                    mRunning = false;
+                    return;
+                }
+
+                // swap input buffers, pending one can be written again
+                FloatRingBuffer amounts = mWorkAmounts;
+                mWorkAmounts = mPendingAmounts;
+                mPendingAmounts = amounts;
+                source = mPendingSource;
+                from = mPendingFrom;
+                length = mPendingLength;
+                mPendingSource = null;
+                baseline = mPendingBaseline;
+                range = mPendingRange;
+                startX = mPendingStartX;
+                pointSpace = mPendingPointSpace;
+                columnTopY = mPendingColumnTopY;
+                maxColumnHeight = mPendingMaxColumnHeight;
+                mHasPending = false;
+            }
+
+            // build outside of lock
+            if (source != null) {
+                mBack.build(source, from, length, baseline, range, startX, pointSpace, columnTopY, maxColumnHeight);
+            } else {
+                mBack.build(mWorkAmounts, 0, mWorkAmounts.size(), baseline, range, startX, pointSpace, columnTopY, maxColumnHeight);
+            }
+
+            // publish back geometry
+            synchronized (mLock) {
+                CurveGeometry ready = mReady;
+                mReady = mBack;
+                mBack = ready;
+                mHasReady = true;
+            }
+            mCallback.onGeometryReady();
+        }
+    }
+
+    /**
+     * Get shared executor
+     *
+     * @return executor
+     */
+    private static synchronized ExecutorService getExecutor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "WeekChartView-geometry");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.kevinnguyen.weekchartview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * LabelLayout
+ * <p>
+ * Measures the labels once and keeps their positions, so drawing labels is only drawText calls.
+ * Positions are measured again when labels, text size or geometry are changed.
+ */
+class LabelLayout {
+
+    // labels and positions
+    private String[] mLabels;
+    private float[] mX;
+    private float[] mY;
+
+    // reusable bounds
+    private final Rect mBounds = new Rect();
+
+    // geometry key
+    private int mStartX;
+    private int mWidthSpace;
+    private int mBottom;
+
+    // need to measure again
+    private boolean mDirty = true;
+
+    /**
+     * Set labels
+     *
+     * @param labels labels
+     */
+    void setLabels(String[] labels) {
+        mLabels = labels;
+        if (mX == null || mX.length < labels.length) {
+            mX = new float[labels.length];
+            mY = new float[labels.length];
+        }
+        mDirty = true;
+    }
+
+    /**
+     * Get labels
+     *
+     * @return labels
+     */
+    String[] getLabels() {
+        return mLabels;
+    }
+
+    /**
+     * Measure again on next draw, used when text paint is changed
+     */
+    void invalidate() {
+        mDirty = true;
+    }
+
+    /**
+     * Set geometry, positions are only invalidated if something is changed
+     *
+     * @param startX     x position of first label center
+     * @param widthSpace width space between two labels
+     * @param bottom     bottom of labels including offset
+     */
+    void setGeometry(int startX, int widthSpace, int bottom) {
+        if (startX == mStartX && widthSpace == mWidthSpace && bottom == mBottom) {
+            return;
+        }
+        mStartX = startX;
+        mWidthSpace = widthSpace;
+        mBottom = bottom;
+        mDirty = true;
+    }
+
+    /**
+     * Draw labels
+     *
+     * @param canvas canvas
+     * @param paint  text paint
+     */
+    void draw(Canvas canvas, Paint paint) {
+        if (mLabels == null) {
+            return;
+        }
+        if (mDirty) {
+            measure(paint);
+        }
+        for (int i = 0; i < mLabels.length; i++) {
+            canvas.drawText(mLabels[i], mX[i], mY[i], paint);
+        }
+    }
+
+    /**
+     * Measure label positions
+     *
+     * @param paint text paint
+     */
+    private void measure(Paint paint) {
+        mDirty = false;
+        for (int i = 0; i < mLabels.length; i++) {
+            paint.getTextBounds(mLabels[i], 0, mLabels[i].length(), mBounds);
+            mX[i] = mStartX - mBounds.width() / 2 + i * mWidthSpace;
+            mY[i] = mBottom - mBounds.height();
+        }
+    }
+
+}
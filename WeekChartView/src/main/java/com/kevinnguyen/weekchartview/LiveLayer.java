@@ -0,0 +1,229 @@
+package com.kevinnguyen.weekchartview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Path;
+
+/**
+ * LiveLayer
+ * <p>
+ * Offscreen plot of a live stream. When amounts are only appended to a full stream and the scale is
+ * not changed, the plot is shifted left by the appended steps and only the newest spline segments
+ * are drawn, so an appended amount costs the same for any number of points. Any other change draws
+ * the whole chart again.
+ * <p>
+ * Plot is shifted by whole pixels so it is never resampled, the remaining fraction is kept for the
+ * next shift and new segments are drawn offset by it.
+ * <p>
+ * Shift and blit of the plot are measured as {@link WeekChartMetrics#PHASE_LAYER}, new segments as
+ * the phases which draw them in a whole chart, and a whole chart measures its own phases.
+ */
+class LiveLayer {
+
+    // appended amounts drawn as segments in one frame, more draw the whole chart
+    private static final int MAX_APPENDED_SEGMENTS = 16;
+
+    // segments drawn before the appended ones, the last old segment gets a new neighbor
+    // and the one before it covers the line stroke at the left of the redrawn part
+    private static final int REDRAWN_SEGMENTS = 2;
+
+    // plot is drawn into back bitmap from front bitmap, then they are swapped
+    private Bitmap mFrontBitmap;
+    private Canvas mFrontCanvas;
+    private Bitmap mBackBitmap;
+    private Canvas mBackCanvas;
+
+    // paths of newest segments
+    private final Path mLinePath = new Path();
+    private final Path mAreaPath = new Path();
+
+    // state of drawn plot
+    private boolean mValid;
+    private boolean mFullDraw;
+    private int mPathVersion;
+    private WeekChartStyle mStyle;
+    private int mSize;
+    private float mBaseline;
+    private float mRange;
+    private float mScrollRemainder;
+
+    // amounts appended since last draw
+    private int mAppendedCount;
+
+    /**
+     * Amount is appended, it is drawn as a new segment if nothing else is changed
+     */
+    void onAppend() {
+        mAppendedCount++;
+    }
+
+    /**
+     * Chart is changed, whole chart is drawn on next draw
+     */
+    void invalidate() {
+        mValid = false;
+    }
+
+    /**
+     * Update plot and draw it
+     *
+     * @param canvas   canvas
+     * @param renderer renderer
+     * @param width    view width
+     * @param height   view height
+     */
+    void draw(Canvas canvas, WeekChartRenderer renderer, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        // create bitmaps for current size
+        WeekChartMetrics metrics = renderer.getMetrics();
+        if (mFrontBitmap == null || mFrontBitmap.getWidth() != width || mFrontBitmap.getHeight() != height) {
+            release();
+            mFrontBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mFrontCanvas = new Canvas(mFrontBitmap);
+            mBackBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mBackCanvas = new Canvas(mBackBitmap);
+            if (metrics != null) {
+                metrics.onAllocation();
+                metrics.onAllocation();
+            }
+        }
+
+        int appendedCount = mAppendedCount;
+        mAppendedCount = 0;
+        long start = metrics != null ? metrics.beginPhase(WeekChartMetrics.PHASE_GEOMETRY) : 0;
+        renderer.updateGeometry();
+        if (metrics != null) {
+            metrics.endPhase(WeekChartMetrics.PHASE_GEOMETRY, start);
+        }
+        boolean drawn;
+        if (!mValid) {
+            drawn = false;
+        } else if (appendedCount > 0) {
+            drawn = drawAppended(renderer, appendedCount, width, height);
+        } else {
+            // only a whole chart can be waiting for the geometry worker
+            drawn = !mFullDraw || renderer.getPathVersion() == mPathVersion;
+        }
+        if (!drawn) {
+            drawFull(renderer, width);
+        }
+        start = metrics != null ? metrics.beginPhase(WeekChartMetrics.PHASE_LAYER) : 0;
+        canvas.drawBitmap(mFrontBitmap, 0, 0, null);
+        if (metrics != null) {
+            metrics.endPhase(WeekChartMetrics.PHASE_LAYER, start);
+        }
+    }
+
+    /**
+     * Release bitmaps
+     */
+    void release() {
+        if (mFrontBitmap != null) {
+            mFrontBitmap.recycle();
+            mBackBitmap.recycle();
+            mFrontBitmap = null;
+            mFrontCanvas = null;
+            mBackBitmap = null;
+            mBackCanvas = null;
+        }
+        mValid = false;
+    }
+
+    /**
+     * Draw whole chart and keep its scale
+     *
+     * @param renderer renderer
+     * @param width    view width
+     */
+    private void drawFull(WeekChartRenderer renderer, int width) {
+        renderer.drawChart(mFrontCanvas, width);
+        CurvePathCache pathCache = renderer.getPrimaryPathCache();
+        mPathVersion = renderer.getPathVersion();
+        mStyle = renderer.getStyle();
+        mSize = renderer.getSeries(0).getSeries().size();
+        mBaseline = pathCache.getBaseline();
+        mRange = pathCache.getRange();
+        mScrollRemainder = 0;
+        mFullDraw = true;
+        mValid = true;
+    }
+
+    /**
+     * Shift plot by appended amounts and draw only the newest segments
+     *
+     * @param renderer      renderer
+     * @param appendedCount number of appended amounts
+     * @param width         view width
+     * @param height        view height
+     * @return false if whole chart must be drawn
+     */
+    private boolean drawAppended(WeekChartRenderer renderer, int appendedCount, int width, int height) {
+        // a stream which is not full changes its point space
+        int size = renderer.getSeries(0).getSeries().size();
+        CurvePathCache pathCache = renderer.getPrimaryPathCache();
+        if (appendedCount > MAX_APPENDED_SEGMENTS || renderer.getSeriesCount() != 1 || renderer.getStyle() != mStyle
+                || size != mSize || pathCache.getBaseline() != mBaseline || pathCache.getRange() != mRange) {
+            return false;
+        }
+        WeekChartMetrics metrics = renderer.getMetrics();
+        long start = metrics != null ? metrics.beginPhase(WeekChartMetrics.PHASE_GEOMETRY) : 0;
+        float startX = pathCache.buildNewestSegments(appendedCount + REDRAWN_SEGMENTS, mLinePath, mAreaPath);
+        if (metrics != null) {
+            metrics.endPhase(WeekChartMetrics.PHASE_GEOMETRY, start);
+        }
+        if (Float.isNaN(startX)) {
+            return false;
+        }
+
+        // shift by whole pixels
+        start = metrics != null ? metrics.beginPhase(WeekChartMetrics.PHASE_LAYER) : 0;
+        float pointSpace = renderer.getPlotWidth() / (float) (size - 1);
+        float scroll = appendedCount * pointSpace + mScrollRemainder;
+        int shift = Math.round(scroll);
+        mScrollRemainder = scroll - shift;
+        mBackCanvas.drawBitmap(mFrontBitmap, -shift, 0, null);
+        if (metrics != null) {
+            metrics.endPhase(WeekChartMetrics.PHASE_LAYER, start);
+        }
+
+        // plot shifted out of its left edge is covered, the margin only has background like a whole chart
+        start = metrics != null ? metrics.beginPhase(WeekChartMetrics.PHASE_BACKGROUND) : 0;
+        WeekChartStyle style = renderer.getStyle();
+        mBackCanvas.drawRect(0, 0, renderer.getPlotLeft(), height, style.getBackgroundPaint());
+
+        // redraw from first changed segment to right edge
+        float left = startX + pointSpace;
+        int saveCount = mBackCanvas.save();
+        mBackCanvas.translate(mScrollRemainder, 0);
+        mBackCanvas.clipRect(left, 0, width + 1, height);
+        mBackCanvas.drawRect(left, 0, width + 1, height, style.getBackgroundPaint());
+        if (metrics != null) {
+            metrics.endPhase(WeekChartMetrics.PHASE_BACKGROUND, start);
+        }
+        start = metrics != null ? metrics.beginPhase(WeekChartMetrics.PHASE_GRADIENT) : 0;
+        mBackCanvas.drawPath(mAreaPath, renderer.getGradientPaint());
+        if (metrics != null) {
+            metrics.endPhase(WeekChartMetrics.PHASE_GRADIENT, start);
+        }
+        start = metrics != null ? metrics.beginPhase(WeekChartMetrics.PHASE_LINE) : 0;
+        mBackCanvas.drawPath(mLinePath, renderer.getSeries(0).getLinePaint());
+        mBackCanvas.restoreToCount(saveCount);
+        if (metrics != null) {
+            metrics.endPhase(WeekChartMetrics.PHASE_LINE, start);
+        }
+
+        // swap bitmaps
+        Bitmap bitmap = mFrontBitmap;
+        Canvas bitmapCanvas = mFrontCanvas;
+        mFrontBitmap = mBackBitmap;
+        mFrontCanvas = mBackCanvas;
+        mBackBitmap = bitmap;
+        mBackCanvas = bitmapCanvas;
+        mFullDraw = false;
+        return true;
+    }
+
+}
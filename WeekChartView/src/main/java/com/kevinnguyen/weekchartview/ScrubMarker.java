@@ -0,0 +1,146 @@
+package com.kevinnguyen.weekchartview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * ScrubMarker
+ * <p>
+ * Marker and value label of the touched point. The label is only formatted and measured
+ * when the point is changed, and the dirty rect covers the old and the new marker only,
+ * so moving the marker does not redraw the whole view.
+ */
+class ScrubMarker {
+
+    // space between marker and label
+    private static final int LABEL_OFFSET = 4;
+
+    // shown point
+    private boolean mVisible;
+    private float mX;
+    private float mY;
+    private float mValue;
+    private int mRadius;
+
+    // label and position
+    private String mLabel;
+    private float mLabelX;
+    private float mLabelY;
+
+    // reusable rects
+    private final Rect mTextBounds = new Rect();
+    private final Rect mBounds = new Rect();
+    private final Rect mDirty = new Rect();
+
+    /**
+     * Is visible
+     *
+     * @return true if marker is shown
+     */
+    boolean isVisible() {
+        return mVisible;
+    }
+
+    /**
+     * Move marker to a point
+     *
+     * @param x         x position of point
+     * @param y         y position of point
+     * @param value     amount of point
+     * @param radius    radius of marker
+     * @param paint     text paint
+     * @param viewWidth width of view, label is kept inside
+     * @return true if marker is changed, dirty rect is set
+     */
+    boolean moveTo(float x, float y, float value, int radius, Paint paint, int viewWidth) {
+        if (mVisible && x == mX && y == mY && value == mValue && radius == mRadius) {
+            return false;
+        }
+
+        // old bounds are dirty too
+        if (mVisible) {
+            mDirty.set(mBounds);
+        } else {
+            mDirty.setEmpty();
+        }
+
+        // only format and measure label for a new value
+        if (!mVisible || value != mValue || mLabel == null) {
+            mLabel = formatAmount(value);
+            paint.getTextBounds(mLabel, 0, mLabel.length(), mTextBounds);
+        }
+        mVisible = true;
+        mX = x;
+        mY = y;
+        mValue = value;
+        mRadius = radius;
+
+        // label above marker, kept inside view
+        int textWidth = mTextBounds.width();
+        int textHeight = mTextBounds.height();
+        mLabelX = Math.max(0, Math.min(viewWidth - textWidth, x - textWidth / 2));
+        mLabelY = y - radius - LABEL_OFFSET;
+
+        // bounds of marker and label
+        mBounds.set(
+                (int) Math.min(x - radius, mLabelX) - 1,
+                (int) (mLabelY - textHeight) - 1,
+                (int) Math.max(x + radius, mLabelX + textWidth) + 1,
+                (int) (y + radius) + 1);
+        mDirty.union(mBounds);
+        return true;
+    }
+
+    /**
+     * Hide marker
+     *
+     * @return true if marker was shown, dirty rect is set
+     */
+    boolean hide() {
+        if (!mVisible) {
+            return false;
+        }
+        mVisible = false;
+        mDirty.set(mBounds);
+        return true;
+    }
+
+    /**
+     * Get dirty rect of last change
+     *
+     * @return dirty rect
+     */
+    Rect getDirty() {
+        return mDirty;
+    }
+
+    /**
+     * Draw marker and label
+     *
+     * @param canvas      canvas
+     * @param markerPaint marker paint
+     * @param textPaint   text paint
+     */
+    void draw(Canvas canvas, Paint markerPaint, Paint textPaint) {
+        if (!mVisible) {
+            return;
+        }
+        canvas.drawCircle(mX, mY, mRadius, markerPaint);
+        canvas.drawText(mLabel, mLabelX, mLabelY, textPaint);
+    }
+
+    /**
+     * Format amount, whole amounts are shown without fraction
+     *
+     * @param value amount
+     * @return label
+     */
+    private static String formatAmount(float value) {
+        if (value == (long) value) {
+            return String.valueOf((long) value);
+        }
+        return String.valueOf(value);
+    }
+
+}
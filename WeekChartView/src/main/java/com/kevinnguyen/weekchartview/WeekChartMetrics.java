@@ -0,0 +1,247 @@
+package com.kevinnguyen.weekchartview;
+
+import android.os.Trace;
+
+/**
+ * WeekChartMetrics
+ * <p>
+ * Optional draw instrumentation: time of each draw phase, draw count, internal allocation count
+ * and animation frame rate. Every phase is also a {@link Trace} section, so it can be seen in systrace.
+ * <p>
+ * Charts only measure while metrics are set, without metrics each phase costs one null check.
+ * Metrics are updated on the drawing thread and must be read there too.
+ */
+public final class WeekChartMetrics {
+
+    /**
+     * Listener, called on the UI thread after every draw of a view
+     */
+    public interface OnMetricsListener {
+        void onDrawMetrics(WeekChartMetrics metrics);
+    }
+
+    // draw phases
+    public static final int PHASE_GEOMETRY = 0;
+    public static final int PHASE_BACKGROUND = 1;
+    public static final int PHASE_GRADIENT = 2;
+    public static final int PHASE_LINE = 3;
+    public static final int PHASE_TEXT = 4;
+    public static final int PHASE_LAYER = 5;
+    public static final int PHASE_MARKER = 6;
+    public static final int PHASE_COUNT = 7;
+
+    // trace section names of phases
+    private static final String[] SECTION_NAMES = {
+            "WeekChart:geometry",
+            "WeekChart:background",
+            "WeekChart:gradient",
+            "WeekChart:line",
+            "WeekChart:text",
+            "WeekChart:layer",
+            "WeekChart:marker"
+    };
+    private static final String SECTION_DRAW = "WeekChart:draw";
+
+    // phase times
+    private final long[] mPhaseNanos = new long[PHASE_COUNT];
+    private final long[] mLastPhaseNanos = new long[PHASE_COUNT];
+
+    // draws
+    private long mDrawCount;
+    private long mDrawNanos;
+    private long mLastDrawNanos;
+
+    // allocations
+    private long mAllocationCount;
+    private long mGeometryAllocationCount;
+    private long mGeometryAllocationBase;
+
+    // animation frames
+    private long mAnimationFrameCount;
+    private long mFirstFrameNanos;
+    private long mLastFrameNanos;
+
+    /**
+     * Get total time of phase
+     *
+     * @param phase phase
+     * @return nanoseconds
+     */
+    public long getPhaseNanos(int phase) {
+        return mPhaseNanos[phase];
+    }
+
+    /**
+     * Get time of phase in last draw
+     *
+     * @param phase phase
+     * @return nanoseconds
+     */
+    public long getLastPhaseNanos(int phase) {
+        return mLastPhaseNanos[phase];
+    }
+
+    /**
+     * Get number of draws
+     *
+     * @return draw count
+     */
+    public long getDrawCount() {
+        return mDrawCount;
+    }
+
+    /**
+     * Get total draw time
+     *
+     * @return nanoseconds
+     */
+    public long getDrawNanos() {
+        return mDrawNanos;
+    }
+
+    /**
+     * Get time of last draw
+     *
+     * @return nanoseconds
+     */
+    public long getLastDrawNanos() {
+        return mLastDrawNanos;
+    }
+
+    /**
+     * Get number of internal allocations: bitmaps, shaders and growth of geometry arrays
+     *
+     * @return allocation count
+     */
+    public long getAllocationCount() {
+        return mAllocationCount + mGeometryAllocationCount - mGeometryAllocationBase;
+    }
+
+    /**
+     * Get number of animation frames of the last animation
+     *
+     * @return frame count
+     */
+    public long getAnimationFrameCount() {
+        return mAnimationFrameCount;
+    }
+
+    /**
+     * Get frame rate of the last animation
+     *
+     * @return frames per second, 0 if there are less than two frames
+     */
+    public float getAnimationFrameRate() {
+        long nanos = mLastFrameNanos - mFirstFrameNanos;
+        if (mAnimationFrameCount < 2 || nanos <= 0) {
+            return 0;
+        }
+        return (mAnimationFrameCount - 1) * 1e9f / nanos;
+    }
+
+    /**
+     * Reset all counters
+     */
+    public void reset() {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            mPhaseNanos[i] = 0;
+            mLastPhaseNanos[i] = 0;
+        }
+        mDrawCount = 0;
+        mDrawNanos = 0;
+        mLastDrawNanos = 0;
+        mAllocationCount = 0;
+        mGeometryAllocationBase = mGeometryAllocationCount;
+        mAnimationFrameCount = 0;
+        mFirstFrameNanos = 0;
+        mLastFrameNanos = 0;
+    }
+
+    /**
+     * Begin draw, phase times of last draw are cleared
+     *
+     * @return start time
+     */
+    long beginDraw() {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            mLastPhaseNanos[i] = 0;
+        }
+        Trace.beginSection(SECTION_DRAW);
+        return System.nanoTime();
+    }
+
+    /**
+     * End draw
+     *
+     * @param start start time
+     */
+    void endDraw(long start) {
+        long nanos = System.nanoTime() - start;
+        Trace.endSection();
+        mDrawCount++;
+        mDrawNanos += nanos;
+        mLastDrawNanos = nanos;
+    }
+
+    /**
+     * Begin phase
+     *
+     * @param phase phase
+     * @return start time
+     */
+    long beginPhase(int phase) {
+        Trace.beginSection(SECTION_NAMES[phase]);
+        return System.nanoTime();
+    }
+
+    /**
+     * End phase
+     *
+     * @param phase phase
+     * @param start start time
+     */
+    void endPhase(int phase, long start) {
+        long nanos = System.nanoTime() - start;
+        Trace.endSection();
+        mPhaseNanos[phase] += nanos;
+        mLastPhaseNanos[phase] += nanos;
+    }
+
+    /**
+     * Count an allocation
+     */
+    void onAllocation() {
+        mAllocationCount++;
+    }
+
+    /**
+     * Set allocation count of geometry, it is counted by the geometry itself
+     *
+     * @param count allocation count since geometry is created
+     */
+    void setGeometryAllocationCount(long count) {
+        mGeometryAllocationCount = count;
+    }
+
+    /**
+     * Animation is started, frame rate is measured again
+     */
+    void onAnimationStart() {
+        mAnimationFrameCount = 0;
+        mFirstFrameNanos = 0;
+        mLastFrameNanos = 0;
+    }
+
+    /**
+     * Count an animation frame
+     */
+    void onAnimationFrame() {
+        long now = System.nanoTime();
+        if (mAnimationFrameCount == 0) {
+            mFirstFrameNanos = now;
+        }
+        mLastFrameNanos = now;
+        mAnimationFrameCount++;
+    }
+
+}
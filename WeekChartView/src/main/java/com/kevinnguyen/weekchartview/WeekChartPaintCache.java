@@ -0,0 +1,199 @@
+package com.kevinnguyen.weekchartview;
+
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.support.annotation.ColorInt;
+import android.util.LruCache;
+
+/**
+ * WeekChartPaintCache
+ * <p>
+ * Process wide cache of paints and gradient shaders, charts with the same colors, sizes and height
+ * share the same native objects. Cached paints are never changed after they are created.
+ * The least recently used paints are evicted, charts keep using the paints they already have.
+ */
+public final class WeekChartPaintCache {
+
+    // max number of cached paints
+    private static final int MAX_SIZE = 64;
+
+    // kinds of paints
+    private static final int KIND_FILL = 0;
+    private static final int KIND_TEXT = 1;
+    private static final int KIND_LINE = 2;
+    private static final int KIND_GRADIENT = 3;
+
+    // cache, it is thread safe and counts hits and misses
+    private static final LruCache<Key, Paint> sPaints = new LruCache<Key, Paint>(MAX_SIZE) {
+        @Override
+        protected Paint create(Key key) {
+            return createPaint(key);
+        }
+    };
+
+    private WeekChartPaintCache() {
+    }
+
+    /**
+     * Get number of lookups which found a cached paint
+     *
+     * @return hit count
+     */
+    public static int getHitCount() {
+        return sPaints.hitCount();
+    }
+
+    /**
+     * Get number of lookups which created a paint
+     *
+     * @return miss count
+     */
+    public static int getMissCount() {
+        return sPaints.missCount();
+    }
+
+    /**
+     * Get number of evicted paints
+     *
+     * @return eviction count
+     */
+    public static int getEvictionCount() {
+        return sPaints.evictionCount();
+    }
+
+    /**
+     * Get number of cached paints
+     *
+     * @return size
+     */
+    public static int getSize() {
+        return sPaints.size();
+    }
+
+    /**
+     * Evict all paints, used when memory is low
+     */
+    public static void clear() {
+        sPaints.evictAll();
+    }
+
+    /**
+     * Get fill paint
+     *
+     * @param color color
+     * @return shared paint
+     */
+    static Paint getFillPaint(@ColorInt int color) {
+        return sPaints.get(new Key(KIND_FILL, color, 0, 0));
+    }
+
+    /**
+     * Get text paint
+     *
+     * @param color    color
+     * @param textSize text size in pixels
+     * @return shared paint
+     */
+    static Paint getTextPaint(@ColorInt int color, int textSize) {
+        return sPaints.get(new Key(KIND_TEXT, color, 0, textSize));
+    }
+
+    /**
+     * Get line paint
+     *
+     * @param color    color
+     * @param lineSize line size in pixels
+     * @return shared paint
+     */
+    static Paint getLinePaint(@ColorInt int color, int lineSize) {
+        return sPaints.get(new Key(KIND_LINE, color, 0, lineSize));
+    }
+
+    /**
+     * Get paint with vertical gradient shader from top to bottom
+     *
+     * @param topColor    color at top
+     * @param bottomColor color at bottom
+     * @param height      height of gradient
+     * @return shared paint
+     */
+    static Paint getGradientPaint(@ColorInt int topColor, @ColorInt int bottomColor, int height) {
+        return sPaints.get(new Key(KIND_GRADIENT, topColor, bottomColor, height));
+    }
+
+    /**
+     * Create paint of key
+     *
+     * @param key key
+     * @return paint
+     */
+    private static Paint createPaint(Key key) {
+        Paint paint = new Paint();
+        switch (key.mKind) {
+            case KIND_GRADIENT:
+                paint.setShader(new LinearGradient(0, 0, 0, key.mSize, key.mColor, key.mSecondColor, Shader.TileMode.CLAMP));
+                return paint;
+            case KIND_LINE:
+                paint.setStyle(Paint.Style.STROKE);
+                paint.setStrokeWidth(key.mSize);
+                break;
+            case KIND_TEXT:
+                paint.setStyle(Paint.Style.FILL);
+                paint.setTextSize(key.mSize);
+                break;
+            default:
+                paint.setStyle(Paint.Style.FILL);
+                break;
+        }
+        paint.setColor(key.mColor);
+        paint.setAntiAlias(true);
+        return paint;
+    }
+
+    /**
+     * Key of cached paint
+     */
+    private static final class Key {
+
+        private final int mKind;
+        private final int mColor;
+        private final int mSecondColor;
+        private final int mSize;
+
+        /**
+         * Constructor
+         *
+         * @param kind        kind of paint
+         * @param color       color
+         * @param secondColor second color of gradient, 0 for other kinds
+         * @param size        text size, line size or gradient height, 0 for fill paints
+         */
+        Key(int kind, int color, int secondColor, int size) {
+            mKind = kind;
+            mColor = color;
+            mSecondColor = secondColor;
+            mSize = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return mKind == other.mKind && mColor == other.mColor && mSecondColor == other.mSecondColor && mSize == other.mSize;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mKind;
+            result = 31 * result + mColor;
+            result = 31 * result + mSecondColor;
+            result = 31 * result + mSize;
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,777 @@
+package com.kevinnguyen.weekchartview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.support.annotation.ColorInt;
+import android.support.annotation.Nullable;
+
+import com.kevinnguyen.weekchartview.core.BucketAggregator;
+import com.kevinnguyen.weekchartview.core.ChartScale;
+import com.kevinnguyen.weekchartview.core.FloatRingBuffer;
+import com.kevinnguyen.weekchartview.core.FloatSeries;
+import com.kevinnguyen.weekchartview.core.SeriesFile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WeekChartRenderer
+ * <p>
+ * Draws a week chart of a given size onto any {@link Canvas} or {@link Bitmap}, it does not need a view.
+ * {@link WeekChartView} draws through a renderer too, so thumbnails look the same as the view.
+ * <p>
+ * A renderer touches no view and can be used on any thread, but only on one thread at a time.
+ * Paints of the shared {@link WeekChartStyle} are only read, so renderers on several threads can
+ * use the same style.
+ */
+public class WeekChartRenderer {
+
+    /**
+     * Listener of batch rendering, the bitmap is drawn again for the next chart after it returns
+     */
+    public interface OnRenderedListener {
+        void onRendered(int index, Bitmap bitmap);
+    }
+
+    // min number of indices in viewport
+    private static final int MIN_VIEWPORT_LENGTH = 2;
+
+    // style
+    private WeekChartStyle mStyle;
+    private String[] mDays;
+
+    // size and layout
+    private int mWidth;
+    private int mHeight;
+    private int mPaddingLeft;
+    private int mPaddingTop;
+    private int mPaddingRight;
+    private int mPaddingBottom;
+    private int mWidthSpace;
+    private int mMaxColumnHeight;
+
+    // gradient
+    private Paint mGradientPaint;
+    private int mGradientHeight;
+    private boolean mGradientDirty = true;
+
+    // series, primary series is always the first
+    private final ArrayList<ChartSeries> mSeries = new ArrayList<>();
+    private final ChartSeries mPrimary;
+    private final LabelLayout mLabelLayout = new LabelLayout();
+
+    // shared scale of all series
+    private final ChartScale mScale = new ChartScale();
+
+    // reusable amounts of aggregator buckets
+    private float[] mAggregateAmounts;
+
+    // settings
+    private boolean enableMinBaseline;
+    private float mViewportStart;
+    private float mViewportLength;
+
+    // callback of geometry workers, null when geometry is built on calling thread
+    private GeometryWorker.Callback mGeometryCallback;
+
+    // metrics, null when draws are not measured
+    private WeekChartMetrics mMetrics;
+
+    // reusable canvas of render
+    private Canvas mCanvas;
+
+    /**
+     * Constructor
+     *
+     * @param style style
+     */
+    public WeekChartRenderer(WeekChartStyle style) {
+        mPrimary = new ChartSeries(style.getLinePaint());
+        mSeries.add(mPrimary);
+        setStyle(style);
+    }
+
+    /**
+     * Set style, shared paints of style are used directly
+     *
+     * @param style style
+     */
+    public void setStyle(WeekChartStyle style) {
+        if (style == mStyle) {
+            return;
+        }
+
+        // gradient shader is only created again if its colors are changed
+        WeekChartStyle oldStyle = mStyle;
+        if (oldStyle == null || style.getStartGradientColor() != oldStyle.getStartGradientColor()
+                || style.getEndGradientColor() != oldStyle.getEndGradientColor()) {
+            mGradientDirty = true;
+        }
+        mStyle = style;
+
+        // use shared line paints, other series keep their colors
+        mPrimary.setLinePaint(style.getLinePaint());
+        for (int i = 1; i < mSeries.size(); i++) {
+            ChartSeries series = mSeries.get(i);
+            series.setLinePaint(WeekChartPaintCache.getLinePaint(series.getLinePaint().getColor(), style.getLineSize()));
+        }
+
+        // labels are only measured again if they or text size are changed
+        if (mDays != style.getSharedLabels()) {
+            mDays = style.getSharedLabels();
+            mLabelLayout.setLabels(mDays);
+        } else if (style.getTextSize() != oldStyle.getTextSize()) {
+            mLabelLayout.invalidate();
+        }
+        layout();
+    }
+
+    /**
+     * Get style
+     *
+     * @return style
+     */
+    public WeekChartStyle getStyle() {
+        return mStyle;
+    }
+
+    /**
+     * Set size
+     *
+     * @param width  width
+     * @param height height
+     */
+    public void setSize(int width, int height) {
+        if (width == mWidth && height == mHeight) {
+            return;
+        }
+        mWidth = width;
+        mHeight = height;
+        layout();
+    }
+
+    /**
+     * Set padding
+     *
+     * @param left   left
+     * @param top    top
+     * @param right  right
+     * @param bottom bottom
+     */
+    public void setPadding(int left, int top, int right, int bottom) {
+        if (left == mPaddingLeft && top == mPaddingTop && right == mPaddingRight && bottom == mPaddingBottom) {
+            return;
+        }
+        mPaddingLeft = left;
+        mPaddingTop = top;
+        mPaddingRight = right;
+        mPaddingBottom = bottom;
+        layout();
+    }
+
+    /**
+     * Get width
+     *
+     * @return width of rendered chart in pixels
+     */
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /**
+     * Get height
+     *
+     * @return height of rendered chart in pixels
+     */
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * Set amounts data
+     *
+     * @param amounts amounts
+     */
+    public void setAmounts(int[] amounts) {
+        if (amounts == null) {
+            mPrimary.getAmounts().clear();
+        } else {
+            mPrimary.getAmounts().set(amounts);
+        }
+        mPrimary.getPathCache().invalidate();
+    }
+
+    /**
+     * Set amounts data
+     *
+     * @param amounts amounts
+     */
+    public void setAmounts(float[] amounts) {
+        if (amounts == null) {
+            mPrimary.getAmounts().clear();
+        } else {
+            mPrimary.getAmounts().set(amounts);
+        }
+        mPrimary.getPathCache().invalidate();
+    }
+
+    /**
+     * Set amounts data
+     *
+     * @param amounts amounts
+     */
+    public void setAmounts(long[] amounts) {
+        if (amounts == null) {
+            mPrimary.getAmounts().clear();
+        } else {
+            mPrimary.getAmounts().set(amounts);
+        }
+        mPrimary.getPathCache().invalidate();
+    }
+
+    /**
+     * Set amounts read directly from a series, for example the values of a {@link SeriesFile}.
+     * Amounts are not copied, so long histories are drawn without loading them into the heap
+     *
+     * @param series series, it must not be changed while it is set
+     */
+    public void setAmounts(FloatSeries series) {
+        if (series == null) {
+            mPrimary.getAmounts().clear();
+            mPrimary.getPathCache().invalidate();
+        } else {
+            mPrimary.setSource(series);
+        }
+    }
+
+    /**
+     * Set amounts from buckets of aggregator, one amount per bucket
+     *
+     * @param aggregator  aggregator
+     * @param aggregation aggregation of buckets, for example {@link BucketAggregator#SUM}
+     */
+    public void setAmounts(BucketAggregator aggregator, int aggregation) {
+        if (mAggregateAmounts == null || mAggregateAmounts.length != aggregator.getBucketCount()) {
+            mAggregateAmounts = new float[aggregator.getBucketCount()];
+        }
+        aggregator.getBuckets(aggregation, mAggregateAmounts);
+        setAmounts(mAggregateAmounts);
+    }
+
+    /**
+     * Append amount, oldest amount is dropped when stream capacity is reached
+     *
+     * @param amount amount
+     */
+    public void append(float amount) {
+        FloatRingBuffer amounts = mPrimary.getAmounts();
+        if (amounts.capacity() == 0) {
+            amounts.setCapacity(mDays.length);
+        }
+        amounts.add(amount);
+        mPrimary.getPathCache().invalidate();
+    }
+
+    /**
+     * Set max number of amounts kept by append
+     *
+     * @param capacity capacity
+     */
+    public void setStreamCapacity(int capacity) {
+        mPrimary.getAmounts().setCapacity(Math.max(1, capacity));
+        mPrimary.getPathCache().invalidate();
+    }
+
+    /**
+     * Get max amount of primary series
+     *
+     * @return max amount
+     */
+    public float getMaxAmount() {
+        return mPrimary.getSeries().getMax();
+    }
+
+    /**
+     * Get min amount of primary series
+     *
+     * @return min amount
+     */
+    public float getMinAmount() {
+        return mPrimary.getSeries().getMin();
+    }
+
+    /**
+     * Add series drawn with its own line color, sharing background, labels and scale with the primary series
+     *
+     * @param amounts amounts
+     * @param color   line color
+     * @return index of series
+     */
+    public int addSeries(float[] amounts, @ColorInt int color) {
+        ChartSeries series = new ChartSeries(WeekChartPaintCache.getLinePaint(color, mStyle.getLineSize()));
+        series.setAsyncGeometryEnable(mGeometryCallback != null, mGeometryCallback);
+        if (amounts != null) {
+            series.getAmounts().set(amounts);
+        }
+        mSeries.add(series);
+        return mSeries.size() - 1;
+    }
+
+    /**
+     * Set amounts of series, index 0 is the primary series
+     *
+     * @param index   index of series
+     * @param amounts amounts
+     */
+    public void setSeriesAmounts(int index, float[] amounts) {
+        ChartSeries series = mSeries.get(index);
+        if (amounts == null) {
+            series.getAmounts().clear();
+        } else {
+            series.getAmounts().set(amounts);
+        }
+        series.getPathCache().invalidate();
+    }
+
+    /**
+     * Remove all series except the primary series
+     */
+    public void clearSeries() {
+        while (mSeries.size() > 1) {
+            mSeries.remove(mSeries.size() - 1);
+        }
+    }
+
+    /**
+     * Clear amounts of all series, buffers are kept
+     */
+    public void clearAmounts() {
+        for (int i = 0; i < mSeries.size(); i++) {
+            ChartSeries series = mSeries.get(i);
+            series.getAmounts().clear();
+            series.getPathCache().invalidate();
+        }
+    }
+
+    /**
+     * Set min baseline enable
+     *
+     * @param enable true to draw from min amount instead of zero
+     */
+    public void setMinBaselineEnable(boolean enable) {
+        enableMinBaseline = enable;
+    }
+
+    /**
+     * Set viewport, only amounts inside it and a small margin are mapped and splined
+     *
+     * @param start  index at the left of plot
+     * @param length number of indices between left and right of plot, 0 to show all amounts
+     */
+    public void setViewport(float start, float length) {
+        mViewportStart = Math.max(0, start);
+        mViewportLength = Math.max(0, length);
+    }
+
+    /**
+     * Set metrics, phases of every draw are measured into it
+     *
+     * @param metrics metrics, or null to stop measuring
+     */
+    public void setMetrics(@Nullable WeekChartMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    /**
+     * Get metrics
+     *
+     * @return metrics, or null if draws are not measured
+     */
+    @Nullable
+    public WeekChartMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Draw whole chart
+     *
+     * @param canvas canvas
+     */
+    public void draw(Canvas canvas) {
+        long start = mMetrics != null ? mMetrics.beginDraw() : 0;
+        drawChart(canvas, mWidth);
+        drawLabels(canvas);
+        if (mMetrics != null) {
+            mMetrics.endDraw(start);
+        }
+    }
+
+    /**
+     * Render chart into a bitmap
+     *
+     * @param bitmap bitmap to reuse, a new one is created if it is null or its size is different
+     * @return bitmap
+     */
+    public Bitmap render(@Nullable Bitmap bitmap) {
+        if (bitmap == null || bitmap.getWidth() != mWidth || bitmap.getHeight() != mHeight) {
+            bitmap = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+            if (mMetrics != null) {
+                mMetrics.onAllocation();
+            }
+        }
+        if (mCanvas == null) {
+            mCanvas = new Canvas();
+        }
+        mCanvas.setBitmap(bitmap);
+        bitmap.eraseColor(0);
+        draw(mCanvas);
+        mCanvas.setBitmap(null);
+        return bitmap;
+    }
+
+    /**
+     * Render many charts with this renderer and one bitmap
+     *
+     * @param amountsList amounts of each chart
+     * @param bitmap      bitmap to reuse, a new one is created if it is null or its size is different
+     * @param listener    listener, called with the bitmap of each chart
+     * @return bitmap
+     */
+    public Bitmap renderBatch(List<float[]> amountsList, @Nullable Bitmap bitmap, OnRenderedListener listener) {
+        for (int i = 0; i < amountsList.size(); i++) {
+            setAmounts(amountsList.get(i));
+            bitmap = render(bitmap);
+            listener.onRendered(i, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Get series
+     *
+     * @param index index of series
+     * @return series
+     */
+    ChartSeries getSeries(int index) {
+        return mSeries.get(index);
+    }
+
+    /**
+     * Get number of series
+     *
+     * @return number of series
+     */
+    int getSeriesCount() {
+        return mSeries.size();
+    }
+
+    /**
+     * Get path cache of primary series
+     *
+     * @return path cache
+     */
+    CurvePathCache getPrimaryPathCache() {
+        return mPrimary.getPathCache();
+    }
+
+    /**
+     * Get labels
+     *
+     * @return labels
+     */
+    String[] getLabels() {
+        return mDays;
+    }
+
+    /**
+     * Set async geometry enable of all series
+     *
+     * @param enable   enable
+     * @param callback callback of geometry workers
+     */
+    void setAsyncGeometryEnable(boolean enable, GeometryWorker.Callback callback) {
+        mGeometryCallback = enable ? callback : null;
+        for (int i = 0; i < mSeries.size(); i++) {
+            mSeries.get(i).setAsyncGeometryEnable(enable, callback);
+        }
+    }
+
+    /**
+     * Get desired width of chart with style sizes
+     *
+     * @return desired width
+     */
+    int getDesiredWidth() {
+        return (mDays.length - 1) * mStyle.getWidthSpace() + 2 * mStyle.getLeftRightOffset() + mPaddingLeft + mPaddingRight;
+    }
+
+    /**
+     * Get desired height of chart with style sizes
+     *
+     * @return desired height
+     */
+    int getDesiredHeight() {
+        return mStyle.getColumnHeight() + mStyle.getColumnTopOffset() + mPaddingTop + mPaddingBottom;
+    }
+
+    /**
+     * Get x position of first point
+     *
+     * @return x position
+     */
+    int getPlotLeft() {
+        return mStyle.getLeftRightOffset() + mPaddingLeft;
+    }
+
+    /**
+     * Get width between first and last point
+     *
+     * @return width
+     */
+    int getPlotWidth() {
+        return mWidthSpace * Math.max(1, mDays.length - 1);
+    }
+
+    /**
+     * Get last index of longest series
+     *
+     * @return last index, -1 if there are no amounts
+     */
+    int getMaxIndex() {
+        int size = 0;
+        for (int i = 0; i < mSeries.size(); i++) {
+            size = Math.max(size, mSeries.get(i).getSeries().size());
+        }
+        return size - 1;
+    }
+
+    /**
+     * Get viewport start
+     *
+     * @return index at the left of plot
+     */
+    float getViewportStart() {
+        return mViewportStart;
+    }
+
+    /**
+     * Get viewport length
+     *
+     * @return number of indices between left and right of plot, 0 if all amounts are shown
+     */
+    float getViewportLength() {
+        return mViewportLength;
+    }
+
+    /**
+     * Has amounts
+     *
+     * @return true if any series has amounts
+     */
+    boolean hasAmounts() {
+        for (int i = 0; i < mSeries.size(); i++) {
+            if (mSeries.get(i).getSeries().size() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get version of paths of all series
+     *
+     * @return version, it is changed every time paths of any series are rebuilt
+     */
+    int getPathVersion() {
+        int version = 0;
+        for (int i = 0; i < mSeries.size(); i++) {
+            version = 31 * version + mSeries.get(i).getPathCache().getVersion();
+        }
+        return version;
+    }
+
+    /**
+     * Update curve geometry and scale of all series, cached paths are only rebuilt if they are changed
+     */
+    void updateGeometry() {
+        clampViewport();
+
+        // visible indices, scale of a viewport only depends on them
+        boolean windowed = mViewportLength > 0;
+        int visibleFrom = (int) Math.floor(mViewportStart);
+        int visibleTo = (int) Math.ceil(mViewportStart + mViewportLength);
+
+        // all series share one scale so they can be compared
+        mScale.reset();
+        for (int i = 0; i < mSeries.size(); i++) {
+            FloatSeries seriesAmounts = mSeries.get(i).getSeries();
+            if (windowed) {
+                // range queries, the window is never scanned
+                mScale.include(seriesAmounts, visibleFrom, visibleTo);
+            } else {
+                mScale.include(seriesAmounts);
+            }
+        }
+        float baseline = mScale.getBaseline(enableMinBaseline);
+        float range = mScale.getRange(enableMinBaseline);
+
+        for (int i = 0; i < mSeries.size(); i++) {
+            CurvePathCache pathCache = mSeries.get(i).getPathCache();
+            pathCache.setGeometry(
+                    getPlotLeft(),
+                    getPlotWidth(),
+                    mStyle.getColumnTopOffset() + mPaddingTop,
+                    mMaxColumnHeight,
+                    mPaddingTop,
+                    mWidth - mStyle.getLeftRightOffset() - mPaddingRight,
+                    mHeight - mPaddingBottom);
+            pathCache.setViewport(mViewportStart, mViewportLength);
+            pathCache.setScale(baseline, range);
+        }
+    }
+
+    /**
+     * Draw background and chart, chart is clipped to revealed part so no pixel is painted twice
+     *
+     * @param canvas      canvas
+     * @param revealRight right of revealed part
+     */
+    void drawChart(Canvas canvas, int revealRight) {
+        long start = mMetrics != null ? mMetrics.beginPhase(WeekChartMetrics.PHASE_BACKGROUND) : 0;
+        drawBackground(canvas);
+        if (mMetrics != null) {
+            mMetrics.endPhase(WeekChartMetrics.PHASE_BACKGROUND, start);
+        }
+        if (hasAmounts() && revealRight > 0) {
+            // paths are rebuilt here, so draw phases only measure drawing
+            start = mMetrics != null ? mMetrics.beginPhase(WeekChartMetrics.PHASE_GEOMETRY) : 0;
+            updateGeometry();
+            getPathVersion();
+            if (mMetrics != null) {
+                mMetrics.endPhase(WeekChartMetrics.PHASE_GEOMETRY, start);
+                mMetrics.setGeometryAllocationCount(getGeometryAllocationCount());
+            }
+
+            int saveCount = canvas.save();
+            if (mViewportLength > 0) {
+                // points of window margin are outside of plot
+                canvas.clipRect(getPlotLeft(), 0, Math.min(revealRight, getPlotLeft() + getPlotWidth()), mHeight);
+            } else if (revealRight < mWidth) {
+                canvas.clipRect(0, 0, revealRight, mHeight);
+            }
+            start = mMetrics != null ? mMetrics.beginPhase(WeekChartMetrics.PHASE_GRADIENT) : 0;
+            drawGradient(canvas);
+            if (mMetrics != null) {
+                mMetrics.endPhase(WeekChartMetrics.PHASE_GRADIENT, start);
+            }
+            start = mMetrics != null ? mMetrics.beginPhase(WeekChartMetrics.PHASE_LINE) : 0;
+            drawLine(canvas);
+            if (mMetrics != null) {
+                mMetrics.endPhase(WeekChartMetrics.PHASE_LINE, start);
+            }
+            canvas.restoreToCount(saveCount);
+        }
+    }
+
+    /**
+     * Draw labels
+     *
+     * @param canvas canvas
+     */
+    void drawLabels(Canvas canvas) {
+        long start = mMetrics != null ? mMetrics.beginPhase(WeekChartMetrics.PHASE_TEXT) : 0;
+        mLabelLayout.setGeometry(getPlotLeft(), mWidthSpace, mHeight - mStyle.getTextBottomOffset() - mPaddingBottom);
+        mLabelLayout.draw(canvas, mStyle.getTextPaint());
+        if (mMetrics != null) {
+            mMetrics.endPhase(WeekChartMetrics.PHASE_TEXT, start);
+        }
+    }
+
+    /**
+     * Get allocation count of geometry of all series
+     *
+     * @return allocation count
+     */
+    private long getGeometryAllocationCount() {
+        long count = 0;
+        for (int i = 0; i < mSeries.size(); i++) {
+            count += mSeries.get(i).getPathCache().getAllocationCount();
+        }
+        return count;
+    }
+
+    /**
+     * Draw background
+     *
+     * @param canvas canvas
+     */
+    private void drawBackground(Canvas canvas) {
+        canvas.drawRect(0, 0, mWidth, mHeight, mStyle.getBackgroundPaint());
+    }
+
+    /**
+     * Draw gradient below the line of primary series
+     *
+     * @param canvas canvas
+     */
+    private void drawGradient(Canvas canvas) {
+        canvas.drawPath(mPrimary.getPathCache().getAreaPath(), getGradientPaint());
+    }
+
+    /**
+     * Get gradient paint, shared shader is only looked up when colors or height are changed
+     *
+     * @return gradient paint
+     */
+    Paint getGradientPaint() {
+        if (mGradientDirty || mGradientHeight != mHeight) {
+            int missCount = WeekChartPaintCache.getMissCount();
+            mGradientPaint = WeekChartPaintCache.getGradientPaint(mStyle.getEndGradientColor(), mStyle.getStartGradientColor(), mHeight);
+            mGradientHeight = mHeight;
+            mGradientDirty = false;
+            if (mMetrics != null && WeekChartPaintCache.getMissCount() != missCount) {
+                mMetrics.onAllocation();
+            }
+        }
+        return mGradientPaint;
+    }
+
+    /**
+     * Draw chart lines of all series
+     *
+     * @param canvas canvas
+     */
+    private void drawLine(Canvas canvas) {
+        for (int i = 0; i < mSeries.size(); i++) {
+            ChartSeries series = mSeries.get(i);
+            canvas.drawPath(series.getPathCache().getLinePath(), series.getLinePaint());
+        }
+    }
+
+    /**
+     * Calculator width space between two labels and max column height, style sizes are used until size is known
+     */
+    private void layout() {
+        if (mWidth > 0) {
+            mWidthSpace = (mWidth - 2 * mStyle.getLeftRightOffset() - mPaddingLeft - mPaddingRight) / Math.max(1, mDays.length - 1);
+            mMaxColumnHeight = mHeight - mStyle.getColumnTopOffset() - mPaddingTop - mPaddingBottom;
+        } else {
+            mWidthSpace = mStyle.getWidthSpace();
+            mMaxColumnHeight = mStyle.getColumnHeight();
+        }
+    }
+
+    /**
+     * Keep viewport inside amounts, amounts can be changed after viewport is set
+     */
+    private void clampViewport() {
+        int maxIndex = getMaxIndex();
+        if (mViewportLength <= 0 || maxIndex <= 0) {
+            return;
+        }
+        mViewportLength = Math.max(Math.min(MIN_VIEWPORT_LENGTH, maxIndex), Math.min(mViewportLength, maxIndex));
+        mViewportStart = Math.max(0, Math.min(mViewportStart, maxIndex - mViewportLength));
+    }
+
+}
@@ -0,0 +1,510 @@
+package com.kevinnguyen.weekchartview;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Paint;
+import android.support.annotation.ColorInt;
+import android.support.annotation.Nullable;
+import android.support.v4.os.ConfigurationCompat;
+import android.util.AttributeSet;
+
+import java.util.Locale;
+
+/**
+ * WeekChartStyle
+ * <p>
+ * Immutable style of {@link WeekChartView}. One style can be referenced by many views,
+ * its paints are created once and never changed, so views using the same style don't
+ * read resources, parse attributes or create paints again. Paints come from
+ * {@link WeekChartPaintCache}, so even styles built separately share them.
+ * Use {@link #buildUpon()} to create a changed copy.
+ */
+public final class WeekChartStyle {
+
+    // default color
+    private static final int DEFAULT_COLOR_BACKGROUND = 0xFF000000;
+    private static final int DEFAULT_COLOR_TEXT = 0xFFFFFFFF;
+    private static final int DEFAULT_COLOR_LINE = 0xFF8AC53F;
+    private static final int DEFAULT_COLOR_START_GRADIENT = 0xFF000000;
+    private static final int DEFAULT_COLOR_END_GRADIENT = 0xFF8AC53F;
+
+    // default size
+    private static final int DEFAULT_TEXT_SIZE_IN_SP = 18;
+    private static final int DEFAULT_LINE_SIZE_IN_DP = 4;
+    private static final int DEFAULT_HEIGHT_IN_DP = 20;
+    private static final int DEFAULT_WIDTH_SPACE_BETWEEN_COLUMN_IN_DP = 8;
+    private static final int DEFAULT_COLUMN_TOP_OFFSET_IN_DP = 30;
+    private static final int DEFAULT_LEFT_RIGHT_OFFSET_IN_DP = 16;
+    private static final int DEFAULT_TEXT_BOTTOM_OFFSET_IN_DP = 2;
+    private static final int DEFAULT_ANIMATION_TIME = 3000;
+
+    // default style, shared by all views without attributes, sizes and labels depend on density and locale
+    private static WeekChartStyle sDefaultStyle;
+    private static float sDefaultDensity;
+    private static Locale sDefaultLocale;
+
+    // colors
+    private final int mBackgroundColor;
+    private final int mTextColor;
+    private final int mLineColor;
+    private final int mStartGradientColor;
+    private final int mEndGradientColor;
+
+    // sizes in pixels
+    private final int mTextSize;
+    private final int mLineSize;
+    private final int mColumnHeight;
+    private final int mWidthSpace;
+    private final int mColumnTopOffset;
+    private final int mLeftRightOffset;
+    private final int mTextBottomOffset;
+
+    // animation time and labels
+    private final int mAnimationTime;
+    private final String[] mLabels;
+
+    // shared paints, never changed after creation
+    private final Paint mBackgroundPaint;
+    private final Paint mTextPaint;
+    private final Paint mLinePaint;
+    private final Paint mMarkerPaint;
+
+    /**
+     * Constructor
+     *
+     * @param builder builder
+     */
+    private WeekChartStyle(Builder builder) {
+        mBackgroundColor = builder.mBackgroundColor;
+        mTextColor = builder.mTextColor;
+        mLineColor = builder.mLineColor;
+        mStartGradientColor = builder.mStartGradientColor;
+        mEndGradientColor = builder.mEndGradientColor;
+        mTextSize = builder.mTextSize;
+        mLineSize = builder.mLineSize;
+        mColumnHeight = builder.mColumnHeight;
+        mWidthSpace = builder.mWidthSpace;
+        mColumnTopOffset = builder.mColumnTopOffset;
+        mLeftRightOffset = builder.mLeftRightOffset;
+        mTextBottomOffset = builder.mTextBottomOffset;
+        mAnimationTime = builder.mAnimationTime;
+        mLabels = builder.mLabels;
+
+        // paints are shared with every style of the same colors and sizes
+        mBackgroundPaint = WeekChartPaintCache.getFillPaint(mBackgroundColor);
+        mTextPaint = WeekChartPaintCache.getTextPaint(mTextColor, mTextSize);
+        mLinePaint = WeekChartPaintCache.getLinePaint(mLineColor, mLineSize);
+        mMarkerPaint = WeekChartPaintCache.getFillPaint(mLineColor);
+    }
+
+    /**
+     * Get default style, it is created again when screen density or locale is changed
+     *
+     * @param context context
+     * @return default style
+     */
+    public static synchronized WeekChartStyle getDefault(Context context) {
+        Resources resources = context.getResources();
+        float density = resources.getDisplayMetrics().density;
+        Locale locale = ConfigurationCompat.getLocales(resources.getConfiguration()).get(0);
+        if (sDefaultStyle == null || sDefaultDensity != density || !locale.equals(sDefaultLocale)) {
+            sDefaultStyle = new Builder(context).build();
+            sDefaultDensity = density;
+            sDefaultLocale = locale;
+        }
+        return sDefaultStyle;
+    }
+
+    /**
+     * Create style from attributes, default style is returned when no attribute is set
+     *
+     * @param context      context
+     * @param attrs        attrs
+     * @param defStyleAttr defStyleAttr
+     * @return style
+     */
+    public static WeekChartStyle fromAttributes(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        WeekChartStyle defaultStyle = getDefault(context);
+        if (attrs == null) {
+            return defaultStyle;
+        }
+        TypedArray typedArray = context.getTheme().obtainStyledAttributes(attrs, R.styleable.WeekChartView, defStyleAttr, 0);
+        try {
+            if (typedArray.getIndexCount() == 0) {
+                return defaultStyle;
+            }
+            Builder builder = defaultStyle.buildUpon();
+            builder.mBackgroundColor = typedArray.getColor(R.styleable.WeekChartView_wcv_background_color, builder.mBackgroundColor);
+            builder.mTextColor = typedArray.getColor(R.styleable.WeekChartView_wcv_text_color, builder.mTextColor);
+            builder.mLineColor = typedArray.getColor(R.styleable.WeekChartView_wcv_line_color, builder.mLineColor);
+            builder.mStartGradientColor = typedArray.getColor(R.styleable.WeekChartView_wcv_start_gradient_color, builder.mStartGradientColor);
+            builder.mEndGradientColor = typedArray.getColor(R.styleable.WeekChartView_wcv_end_gradient_color, builder.mEndGradientColor);
+            builder.mTextSize = (int) typedArray.getDimension(R.styleable.WeekChartView_wcv_text_size, builder.mTextSize);
+            builder.mLineSize = (int) typedArray.getDimension(R.styleable.WeekChartView_wcv_line_size, builder.mLineSize);
+            return builder.build();
+        } finally {
+            typedArray.recycle();
+        }
+    }
+
+    /**
+     * Create builder with values of this style
+     *
+     * @return builder
+     */
+    public Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    /**
+     * Get background color
+     *
+     * @return background color
+     */
+    public int getBackgroundColor() {
+        return mBackgroundColor;
+    }
+
+    /**
+     * Get text color
+     *
+     * @return text color
+     */
+    public int getTextColor() {
+        return mTextColor;
+    }
+
+    /**
+     * Get line color
+     *
+     * @return line color
+     */
+    public int getLineColor() {
+        return mLineColor;
+    }
+
+    /**
+     * Get start gradient color
+     *
+     * @return color at the bottom of gradient
+     */
+    public int getStartGradientColor() {
+        return mStartGradientColor;
+    }
+
+    /**
+     * Get end gradient color
+     *
+     * @return color at the top of gradient
+     */
+    public int getEndGradientColor() {
+        return mEndGradientColor;
+    }
+
+    /**
+     * Get text size
+     *
+     * @return text size in pixels
+     */
+    public int getTextSize() {
+        return mTextSize;
+    }
+
+    /**
+     * Get line size
+     *
+     * @return line size in pixels
+     */
+    public int getLineSize() {
+        return mLineSize;
+    }
+
+    /**
+     * Get column height
+     *
+     * @return column height in pixels, used until view size is known
+     */
+    public int getColumnHeight() {
+        return mColumnHeight;
+    }
+
+    /**
+     * Get width space
+     *
+     * @return width space between labels in pixels, used until view size is known
+     */
+    public int getWidthSpace() {
+        return mWidthSpace;
+    }
+
+    /**
+     * Get column top offset
+     *
+     * @return space above columns in pixels
+     */
+    public int getColumnTopOffset() {
+        return mColumnTopOffset;
+    }
+
+    /**
+     * Get left right offset
+     *
+     * @return space at the left and right of plot in pixels
+     */
+    public int getLeftRightOffset() {
+        return mLeftRightOffset;
+    }
+
+    /**
+     * Get text bottom offset
+     *
+     * @return space below labels in pixels
+     */
+    public int getTextBottomOffset() {
+        return mTextBottomOffset;
+    }
+
+    /**
+     * Get animation time
+     *
+     * @return animation time in milliseconds
+     */
+    public int getAnimationTime() {
+        return mAnimationTime;
+    }
+
+    /**
+     * Get labels
+     *
+     * @return copy of labels
+     */
+    public String[] getLabels() {
+        return mLabels.clone();
+    }
+
+    /**
+     * Get labels without copy, must not be changed
+     *
+     * @return labels
+     */
+    String[] getSharedLabels() {
+        return mLabels;
+    }
+
+    /**
+     * Get background paint
+     *
+     * @return shared background paint
+     */
+    Paint getBackgroundPaint() {
+        return mBackgroundPaint;
+    }
+
+    /**
+     * Get text paint
+     *
+     * @return shared text paint
+     */
+    Paint getTextPaint() {
+        return mTextPaint;
+    }
+
+    /**
+     * Get line paint
+     *
+     * @return shared line paint
+     */
+    Paint getLinePaint() {
+        return mLinePaint;
+    }
+
+    /**
+     * Get marker paint
+     *
+     * @return shared scrub marker paint
+     */
+    Paint getMarkerPaint() {
+        return mMarkerPaint;
+    }
+
+    /**
+     * Builder
+     */
+    public static final class Builder {
+
+        private int mBackgroundColor;
+        private int mTextColor;
+        private int mLineColor;
+        private int mStartGradientColor;
+        private int mEndGradientColor;
+        private int mTextSize;
+        private int mLineSize;
+        private int mColumnHeight;
+        private int mWidthSpace;
+        private int mColumnTopOffset;
+        private int mLeftRightOffset;
+        private int mTextBottomOffset;
+        private int mAnimationTime;
+        private String[] mLabels;
+
+        /**
+         * Constructor, values are the defaults of current screen density
+         *
+         * @param context context
+         */
+        public Builder(Context context) {
+            float density = context.getResources().getDisplayMetrics().density;
+
+            // init color variables
+            mBackgroundColor = DEFAULT_COLOR_BACKGROUND;
+            mTextColor = DEFAULT_COLOR_TEXT;
+            mLineColor = DEFAULT_COLOR_LINE;
+            mStartGradientColor = DEFAULT_COLOR_START_GRADIENT;
+            mEndGradientColor = DEFAULT_COLOR_END_GRADIENT;
+
+            // init size variables
+            mTextSize = (int) (DEFAULT_TEXT_SIZE_IN_SP * density);
+            mLineSize = (int) (DEFAULT_LINE_SIZE_IN_DP * density);
+            mColumnHeight = (int) (DEFAULT_HEIGHT_IN_DP * density);
+            mWidthSpace = (int) (DEFAULT_WIDTH_SPACE_BETWEEN_COLUMN_IN_DP * density);
+            mColumnTopOffset = (int) (DEFAULT_COLUMN_TOP_OFFSET_IN_DP * density);
+            mLeftRightOffset = (int) (DEFAULT_LEFT_RIGHT_OFFSET_IN_DP * density);
+            mTextBottomOffset = (int) (DEFAULT_TEXT_BOTTOM_OFFSET_IN_DP * density);
+            mAnimationTime = DEFAULT_ANIMATION_TIME;
+            mLabels = context.getResources().getStringArray(R.array.days);
+        }
+
+        /**
+         * Constructor, values are copied from style
+         *
+         * @param style style
+         */
+        private Builder(WeekChartStyle style) {
+            mBackgroundColor = style.mBackgroundColor;
+            mTextColor = style.mTextColor;
+            mLineColor = style.mLineColor;
+            mStartGradientColor = style.mStartGradientColor;
+            mEndGradientColor = style.mEndGradientColor;
+            mTextSize = style.mTextSize;
+            mLineSize = style.mLineSize;
+            mColumnHeight = style.mColumnHeight;
+            mWidthSpace = style.mWidthSpace;
+            mColumnTopOffset = style.mColumnTopOffset;
+            mLeftRightOffset = style.mLeftRightOffset;
+            mTextBottomOffset = style.mTextBottomOffset;
+            mAnimationTime = style.mAnimationTime;
+            mLabels = style.mLabels;
+        }
+
+        /**
+         * Set background color
+         *
+         * @param color background color
+         * @return builder
+         */
+        public Builder setBackgroundColor(@ColorInt int color) {
+            mBackgroundColor = color;
+            return this;
+        }
+
+        /**
+         * Set text color
+         *
+         * @param color text color
+         * @return builder
+         */
+        public Builder setTextColor(@ColorInt int color) {
+            mTextColor = color;
+            return this;
+        }
+
+        /**
+         * Set line color
+         *
+         * @param color line color
+         * @return builder
+         */
+        public Builder setLineColor(@ColorInt int color) {
+            mLineColor = color;
+            return this;
+        }
+
+        /**
+         * Set start gradient color
+         *
+         * @param color color at the bottom of gradient
+         * @return builder
+         */
+        public Builder setStartGradientColor(@ColorInt int color) {
+            mStartGradientColor = color;
+            return this;
+        }
+
+        /**
+         * Set end gradient color
+         *
+         * @param color color at the top of gradient
+         * @return builder
+         */
+        public Builder setEndGradientColor(@ColorInt int color) {
+            mEndGradientColor = color;
+            return this;
+        }
+
+        /**
+         * Set text size
+         *
+         * @param px text size in pixels
+         * @return builder
+         */
+        public Builder setTextSize(int px) {
+            mTextSize = px;
+            return this;
+        }
+
+        /**
+         * Set line size
+         *
+         * @param px line size in pixels
+         * @return builder
+         */
+        public Builder setLineSize(int px) {
+            mLineSize = px;
+            return this;
+        }
+
+        /**
+         * Set animation time
+         *
+         * @param milliseconds animation time in milliseconds
+         * @return builder
+         */
+        public Builder setAnimationTime(int milliseconds) {
+            mAnimationTime = milliseconds;
+            return this;
+        }
+
+        /**
+         * Set labels
+         *
+         * @param labels labels, they are copied
+         * @return builder
+         */
+        public Builder setLabels(String[] labels) {
+            mLabels = labels.clone();
+            return this;
+        }
+
+        /**
+         * Build style
+         *
+         * @return style
+         */
+        public WeekChartStyle build() {
+            return new WeekChartStyle(this);
+        }
+
+    }
+
+}
@@ -2,74 +2,84 @@ package com.kevinnguyen.weekchartview;
 
 import android.animation.ValueAnimator;
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.LinearGradient;
-import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.Rect;
-import android.graphics.Shader;
 import android.support.annotation.ColorRes;
 import android.support.annotation.Nullable;
 import android.support.v4.content.ContextCompat;
 import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
+import android.view.ViewParent;
 import android.view.animation.DecelerateInterpolator;
 
+import com.kevinnguyen.weekchartview.core.BucketAggregator;
+import com.kevinnguyen.weekchartview.core.CurveGeometry;
+import com.kevinnguyen.weekchartview.core.FloatSeries;
+import com.kevinnguyen.weekchartview.core.SeriesFile;
+
 /**
  * WeekChartView
+ * <p>
+ * Chart drawing is done by {@link WeekChartRenderer}, the view adds animation, layer cache and touch.
+ * <p>
+ * Setters only record their change, all changes of a frame are applied once on the next
+ * {@link Choreographer} frame, so a burst of updates lays out, scales and animates only once.
+ * <p>
+ * Like any view it must only be changed on the main thread once it is attached, updates from other
+ * threads have to be posted to it. A detached view can be set up by one other thread, its changes
+ * are applied when it is attached, measured or drawn.
+ * <p>
+ * In live mode appended amounts only shift the drawn plot and draw their new segments, see {@link LiveLayer}.
  */
 public class WeekChartView extends View implements WeekChartViewInterface {
 
-    // default color
-    private static final int DEFAULT_COLOR_BACKGROUND = 0xFF000000;
-    private static final int DEFAULT_COLOR_TEXT = 0xFFFFFFFF;
-    private static final int DEFAULT_COLOR_LINE = 0xFF8AC53F;
-    private static final int DEFAULT_COLOR_START_GRADIENT = 0xFF000000;
-    private static final int DEFAULT_COLOR_END_GRADIENT = 0xFF8AC53F;
-
-    // default size
-    private static final int DEFAULT_TEXT_SIZE_IN_SP = 18;
-    private static final int DEFAULT_LINE_SIZE_IN_DP = 4;
-    private static final int DEFAULT_HEIGHT_IN_DP = 20;
-    private static final int DEFAULT_WIDTH_SPACE_BETWEEN_COLUMN_IN_DP = 8;
-    private static final int DEFAULT_COLUMN_TOP_OFFSET_IN_DP = 30;
-    private static final int DEFAULT_LEFT_RIGHT_OFFSET_IN_DP = 16;
-    private static final int DEFAULT_TEXT_BOTTOM_OFFSET_IN_DP = 2;
-    private static final int DEFAULT_ANIMATION_TIME = 3000;
-
-    // smooth line value
-    private static final float GRAPH_SMOOTHNES = 0.15f;
+    // pending changes, applied once per frame
+    private static final int CHANGE_DATA = 1;
+    private static final int CHANGE_STYLE = 1 << 1;
+    private static final int CHANGE_GEOMETRY = 1 << 2;
+    private static final int CHANGE_APPEND = 1 << 3;
 
     // settings variables
-    private int mBackgroundColor;
-    private int mTextColor;
-    private int mLineColor;
-    private int mStartGradientColor;
-    private int mEndGradientColor;
-    private int mTextSize;
-    private int mLineSize;
     private boolean enableAnimation;
+    private boolean enableLayerCache;
+    private boolean enableMorphAnimation;
+    private boolean enableAsyncGeometry;
+    private boolean enableScrub;
+    private boolean enablePanZoom;
+    private boolean enableLiveMode;
 
     // temp variables
-    private int mAnimationTime;
-    private int mMaxColumnHeight;
-    private int mWidthSpace;
-    private int mColumnTopOffset;
-    private int mLeftRightOffset;
-    private int mTextBottomOffset;
     private int mViewWidth;
     private int mViewHeight;
-    private Rect mAnimationRect;
-    private Paint mBackgroundPaint;
-    private Paint mBackgroundGradientPaint;
-    private Paint mTextPaint;
-    private Paint mLinePaint;
-    private Paint mOverlayPaint;
-
-    // days and amounts
-    private String[] mDays;
-    private int[] amounts;
+    private float mRevealFraction;
+    private ValueAnimator mRevealAnimator;
+    private boolean mMorphing;
+    private Bitmap mLayerBitmap;
+    private Canvas mLayerCanvas;
+    private boolean mLayerDirty;
+    private int mLayerPathVersion;
+    private LiveLayer mLiveLayer;
+    private GeometryWorker.Callback mGeometryCallback;
+    private ScrubMarker mScrubMarker;
+    private float mScrubX;
+    private GestureDetector mGestureDetector;
+    private ScaleGestureDetector mScaleGestureDetector;
+    private WeekChartMetrics mMetrics;
+    private WeekChartMetrics.OnMetricsListener mMetricsListener;
+
+    // changes waiting for next frame
+    private int mPendingChanges;
+    private boolean mPendingMorph;
+    private WeekChartStyle mPendingStyle;
+    private Runnable mFrameRunnable;
+    private boolean mFrameScheduled;
+
+    // renderer, it keeps style, amounts and cached paths
+    private WeekChartRenderer mRenderer;
 
     /**
      * Constructor
@@ -78,7 +88,18 @@ public class WeekChartView extends View implements WeekChartViewInterface {
      */
     public WeekChartView(Context context) {
         super(context);
-        init(context, null, 0);
+        init(WeekChartStyle.getDefault(context));
+    }
+
+    /**
+     * Constructor, style is shared and not copied
+     *
+     * @param context context
+     * @param style   style
+     */
+    public WeekChartView(Context context, WeekChartStyle style) {
+        super(context);
+        init(style);
     }
 
     /**
@@ -89,7 +110,7 @@ public class WeekChartView extends View implements WeekChartViewInterface {
      */
     public WeekChartView(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
-        init(context, attrs, 0);
+        init(WeekChartStyle.fromAttributes(context, attrs, 0));
     }
 
     /**
@@ -101,81 +122,23 @@ public class WeekChartView extends View implements WeekChartViewInterface {
      */
     public WeekChartView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        init(context, attrs, defStyleAttr);
+        init(WeekChartStyle.fromAttributes(context, attrs, defStyleAttr));
     }
 
     /**
      * Init data
      *
-     * @param context      context
-     * @param attrs        attrs
-     * @param defStyleAttr defStyleAttr
+     * @param style style
      */
-    private void init(Context context, AttributeSet attrs, int defStyleAttr) {
-        float density = getResources().getDisplayMetrics().density;
-
-        // init color variables
-        mBackgroundColor = DEFAULT_COLOR_BACKGROUND;
-        mTextColor = DEFAULT_COLOR_TEXT;
-        mLineColor = DEFAULT_COLOR_LINE;
-        mStartGradientColor = DEFAULT_COLOR_START_GRADIENT;
-        mEndGradientColor = DEFAULT_COLOR_END_GRADIENT;
-
-        // init size variables
-        mTextSize = (int) (DEFAULT_TEXT_SIZE_IN_SP * density);
-        mLineSize = (int) (DEFAULT_LINE_SIZE_IN_DP * density);
-        mMaxColumnHeight = (int) (DEFAULT_HEIGHT_IN_DP * density);
-        mWidthSpace = (int) (DEFAULT_WIDTH_SPACE_BETWEEN_COLUMN_IN_DP * density);
-        mColumnTopOffset = (int) (DEFAULT_COLUMN_TOP_OFFSET_IN_DP * density);
-        mLeftRightOffset = (int) (DEFAULT_LEFT_RIGHT_OFFSET_IN_DP * density);
-        mTextBottomOffset = (int) (DEFAULT_TEXT_BOTTOM_OFFSET_IN_DP * density);
-        mDays = getResources().getStringArray(R.array.days);
-        mAnimationTime = DEFAULT_ANIMATION_TIME;
-
-        // getting attributes
-        if (attrs != null) {
-            TypedArray typedArray = context.getTheme().obtainStyledAttributes(attrs, R.styleable.WeekChartView, defStyleAttr, 0);
-            try {
-                mBackgroundColor = typedArray.getColor(R.styleable.WeekChartView_wcv_background_color, mBackgroundColor);
-                mTextColor = typedArray.getColor(R.styleable.WeekChartView_wcv_text_color, mTextColor);
-                mLineColor = typedArray.getColor(R.styleable.WeekChartView_wcv_line_color, mLineColor);
-                mStartGradientColor = typedArray.getColor(R.styleable.WeekChartView_wcv_start_gradient_color, mStartGradientColor);
-                mEndGradientColor = typedArray.getColor(R.styleable.WeekChartView_wcv_end_gradient_color, mEndGradientColor);
-                mTextSize = (int) typedArray.getDimension(R.styleable.WeekChartView_wcv_text_size, mTextSize);
-                mLineSize = (int) typedArray.getDimension(R.styleable.WeekChartView_wcv_line_size, mLineSize);
-            } finally {
-                typedArray.recycle();
-            }
-        }
-
-        // create background paint
-        mBackgroundPaint = new Paint();
-        mBackgroundPaint.setColor(mBackgroundColor);
-        mBackgroundPaint.setAntiAlias(true);
-        mBackgroundPaint.setStyle(Paint.Style.FILL);
-
-        // create text paint
-        mTextPaint = new Paint();
-        mTextPaint.setColor(mTextColor);
-        mTextPaint.setAntiAlias(true);
-        mTextPaint.setStyle(Paint.Style.FILL);
-        mTextPaint.setTextSize(mTextSize);
-
-        // create line paint
-        mLinePaint = new Paint();
-        mLinePaint.setColor(mLineColor);
-        mLinePaint.setAntiAlias(true);
-        mLinePaint.setStyle(Paint.Style.STROKE);
-        mLinePaint.setStrokeWidth(mLineSize);
+    private void init(WeekChartStyle style) {
+        // create renderer
+        mRenderer = new WeekChartRenderer(style);
 
-        // create gradient paint
-        mBackgroundGradientPaint = new Paint();
+        // create scrub marker, hidden until touched
+        mScrubMarker = new ScrubMarker();
 
-        // create overlay paint
-        mOverlayPaint = new Paint();
-        mOverlayPaint.setColor(mBackgroundColor);
-        mOverlayPaint.setAntiAlias(true);
-        mOverlayPaint.setStyle(Paint.Style.FILL);
+        // chart is fully revealed until animation starts
+        mRevealFraction = 1f;
     }
 
     /**
@@ -193,8 +156,10 @@ public class WeekChartView extends View implements WeekChartViewInterface {
         int heightSize = MeasureSpec.getSize(heightMeasureSpec);
 
         // calculator desired width and height
-        int desiredWidth = (mDays.length - 1) * mWidthSpace + 2 * mLeftRightOffset + getPaddingLeft() + getPaddingRight();
-        int desiredHeight = mMaxColumnHeight + mColumnTopOffset + getPaddingTop() + getPaddingBottom();
+        applyPendingChanges();
+        updatePadding();
+        int desiredWidth = mRenderer.getDesiredWidth();
+        int desiredHeight = mRenderer.getDesiredHeight();
 
         // detect width height
         int width;
@@ -230,15 +195,20 @@ public class WeekChartView extends View implements WeekChartViewInterface {
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
 
-        // set new width and height
+        // set new width and height, renderer calculates width space and column height
         mViewWidth = w;
         mViewHeight = h;
+        updatePadding();
+        mRenderer.setSize(w, h);
+        mRenderer.updateGeometry();
+        setLayersDirty();
+    }
 
-        // calculator real width space
-        mWidthSpace = (mViewWidth - 2 * mLeftRightOffset - getPaddingLeft() - getPaddingRight()) / (mDays.length - 1);
-
-        // calculator max column height
-        mMaxColumnHeight = mViewHeight - mColumnTopOffset - getPaddingTop() - getPaddingBottom();
+    /**
+     * Pass padding to renderer, it is only laid out again if padding is changed
+     */
+    private void updatePadding() {
+        mRenderer.setPadding(getPaddingLeft(), getPaddingTop(), getPaddingRight(), getPaddingBottom());
     }
 
     /**
@@ -249,236 +219,879 @@ public class WeekChartView extends View implements WeekChartViewInterface {
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        drawBackground(canvas);
-        if (amounts != null && amounts.length > 0) {
-            drawGradient(canvas);
-            drawOverlay(canvas);
-            drawLine(canvas);
+        long start = mMetrics != null ? mMetrics.beginDraw() : 0;
+        applyPendingChanges();
+        updatePadding();
+        int revealRight = getRevealRight();
+        if (enableLiveMode && !isAnimating()) {
+            drawLiveLayer(canvas);
+        } else if (enableLayerCache) {
+            drawLayer(canvas, revealRight);
+        } else {
+            mRenderer.drawChart(canvas, revealRight);
+        }
+        mRenderer.drawLabels(canvas);
+        drawScrubMarker(canvas);
+        if (mMetrics != null) {
+            mMetrics.endDraw(start);
+            mMetricsListener.onDrawMetrics(mMetrics);
         }
-        drawAnimationBackground(canvas);
-        drawText(canvas);
     }
 
     /**
-     * Draw animation background
+     * On touch event, move scrub marker to the nearest point while scrubbing is enabled
      *
-     * @param canvas canvas
+     * @param event event
+     * @return true if event is handled
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (enablePanZoom && mRenderer.hasAmounts()) {
+            if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                disallowParentIntercept();
+            }
+            mScaleGestureDetector.onTouchEvent(event);
+            mGestureDetector.onTouchEvent(event);
+            return true;
+        }
+        if (!enableScrub || !mRenderer.hasAmounts()) {
+            return super.onTouchEvent(event);
+        }
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                disallowParentIntercept();
+                moveScrubMarker(event.getX());
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                moveScrubMarker(event.getX());
+                return true;
+            case MotionEvent.ACTION_UP:
+                performClick();
+                hideScrubMarker();
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                hideScrubMarker();
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Parent must not take the drag
+     */
+    private void disallowParentIntercept() {
+        ViewParent parent = getParent();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(true);
+        }
+    }
+
+    /**
+     * Pan viewport
+     *
+     * @param distanceX distance in pixels, positive moves to later amounts
+     */
+    private void panBy(float distanceX) {
+        float length = mRenderer.getViewportLength();
+        int plotWidth = mRenderer.getPlotWidth();
+        if (length <= 0 || plotWidth <= 0) {
+            return;
+        }
+        float pointSpace = plotWidth / length;
+        setViewport(mRenderer.getViewportStart() + distanceX / pointSpace, length);
+    }
+
+    /**
+     * Zoom viewport, index below focus stays at the same position
+     *
+     * @param scaleFactor scale factor, greater than 1 zooms in
+     * @param focusX      x position of focus
+     */
+    private void zoomBy(float scaleFactor, float focusX) {
+        int maxIndex = mRenderer.getMaxIndex();
+        int plotWidth = mRenderer.getPlotWidth();
+        if (maxIndex <= 0 || scaleFactor <= 0 || plotWidth <= 0) {
+            return;
+        }
+        float viewportLength = mRenderer.getViewportLength();
+        float start = viewportLength > 0 ? mRenderer.getViewportStart() : 0;
+        float length = viewportLength > 0 ? viewportLength : maxIndex;
+        float focusFraction = (focusX - mRenderer.getPlotLeft()) / plotWidth;
+        float focusIndex = start + focusFraction * length;
+        float newLength = length / scaleFactor;
+        setViewport(focusIndex - focusFraction * newLength, newLength);
+    }
+
+    /**
+     * Perform click
+     *
+     * @return true if click is handled
+     */
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    /**
+     * Move scrub marker, only old and new marker bounds are invalidated
+     *
+     * @param x touched x position
      */
-    private void drawAnimationBackground(final Canvas canvas) {
-        if (mAnimationRect != null && enableAnimation) {
-            canvas.drawRect(mAnimationRect, mBackgroundPaint);
+    private void moveScrubMarker(float x) {
+        mScrubX = x;
+        if (updateScrubMarker()) {
+            invalidate(mScrubMarker.getDirty());
         }
     }
 
     /**
-     * Draw chart line
+     * Hide scrub marker, only its bounds are invalidated
+     */
+    private void hideScrubMarker() {
+        if (mScrubMarker.hide()) {
+            invalidate(mScrubMarker.getDirty());
+        }
+    }
+
+    /**
+     * Move scrub marker to the point nearest to touched x position of primary series
+     *
+     * @return true if marker is changed
+     */
+    private boolean updateScrubMarker() {
+        mRenderer.updateGeometry();
+        CurveGeometry geometry = mRenderer.getPrimaryPathCache().getGeometry();
+        int index = geometry.findNearest(mScrubX);
+        if (index < 0) {
+            return mScrubMarker.hide();
+        }
+        WeekChartStyle style = mRenderer.getStyle();
+        return mScrubMarker.moveTo(geometry.getPointX(index), geometry.getPointY(index), geometry.getValue(index),
+                style.getLineSize() * 2, style.getTextPaint(), mViewWidth);
+    }
+
+    /**
+     * Draw scrub marker, it follows changed amounts and running morph
      *
      * @param canvas canvas
      */
-    private void drawLine(Canvas canvas) {
-        // calculator max amount
-        int maxAmount = getMaxInArray(amounts);
+    private void drawScrubMarker(Canvas canvas) {
+        if (!mScrubMarker.isVisible()) {
+            return;
+        }
+        long start = mMetrics != null ? mMetrics.beginPhase(WeekChartMetrics.PHASE_MARKER) : 0;
+        updateScrubMarker();
+        WeekChartStyle style = mRenderer.getStyle();
+        mScrubMarker.draw(canvas, style.getMarkerPaint(), style.getTextPaint());
+        if (mMetrics != null) {
+            mMetrics.endPhase(WeekChartMetrics.PHASE_MARKER, start);
+        }
+    }
 
-        // create path
-        Path path = new Path();
-        path.moveTo(getXPos(0), getYPos(amounts[0], maxAmount));
+    /**
+     * On attached to window, changes made while detached are applied on next frame
+     */
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        scheduleFrame();
+    }
 
-        // smooth path
-        for (int i = 0; i < amounts.length - 1; i++) {
-            float thisPointX = getXPos(i);
-            float thisPointY = getYPos(amounts[i], maxAmount);
-            float nextPointX = getXPos(i + 1);
-            float nextPointY = getYPos(amounts[si(i + 1, amounts)], maxAmount);
+    /**
+     * On detached from window, release layer bitmap
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // finish animation, a detached view must not keep animation frames running
+        if (mRevealAnimator != null) {
+            mRevealAnimator.end();
+        }
+        // pending changes are applied by next attach, measure or draw
+        if (mFrameScheduled) {
+            removeCallbacks(mFrameRunnable);
+            mFrameScheduled = false;
+        }
+        releaseLayer();
+        if (mLiveLayer != null) {
+            mLiveLayer.release();
+        }
+    }
 
-            float startdiffX = (nextPointX - getXPos(si(i - 1, amounts)));
-            float startdiffY = (nextPointY - getYPos(amounts[si(i - 1, amounts)], maxAmount));
-            float endDiffX = (getXPos(si(i + 2, amounts)) - thisPointX);
-            float endDiffY = (getYPos(amounts[si(i + 2, amounts)], maxAmount) - thisPointY);
+    /**
+     * On visibility changed, pause animation while view is not shown
+     *
+     * @param changedView changedView
+     * @param visibility  visibility
+     */
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        if (mRevealAnimator == null || !mRevealAnimator.isStarted()) {
+            return;
+        }
+        if (isShown()) {
+            mRevealAnimator.resume();
+        } else {
+            mRevealAnimator.pause();
+        }
+    }
 
-            float firstControlX = thisPointX + (GRAPH_SMOOTHNES * startdiffX);
-            float firstControlY = thisPointY + (GRAPH_SMOOTHNES * startdiffY);
-            float secondControlX = nextPointX - (GRAPH_SMOOTHNES * endDiffX);
-            float secondControlY = nextPointY - (GRAPH_SMOOTHNES * endDiffY);
+    /**
+     * Draw cached layer, chart is only drawn into the layer again when something is changed
+     *
+     * @param canvas      canvas
+     * @param revealRight right of revealed part
+     */
+    private void drawLayer(Canvas canvas, int revealRight) {
+        if (mViewWidth <= 0 || mViewHeight <= 0) {
+            return;
+        }
+
+        // create layer bitmap for current size
+        if (mLayerBitmap == null || mLayerBitmap.getWidth() != mViewWidth || mLayerBitmap.getHeight() != mViewHeight) {
+            releaseLayer();
+            mLayerBitmap = Bitmap.createBitmap(mViewWidth, mViewHeight, Bitmap.Config.ARGB_8888);
+            mLayerCanvas = new Canvas(mLayerBitmap);
+            if (mMetrics != null) {
+                mMetrics.onAllocation();
+            }
+        }
 
-            path.cubicTo(firstControlX, firstControlY, secondControlX, secondControlY, nextPointX, nextPointY);
+        // paths can also be changed by the geometry worker
+        long start = mMetrics != null ? mMetrics.beginPhase(WeekChartMetrics.PHASE_GEOMETRY) : 0;
+        mRenderer.updateGeometry();
+        int pathVersion = mRenderer.getPathVersion();
+        if (mMetrics != null) {
+            mMetrics.endPhase(WeekChartMetrics.PHASE_GEOMETRY, start);
+        }
+        if (mLayerDirty || pathVersion != mLayerPathVersion) {
+            mRenderer.drawChart(mLayerCanvas, mViewWidth);
+            mLayerDirty = false;
+            mLayerPathVersion = pathVersion;
         }
 
-        // draw path
-        canvas.drawPath(path, mLinePaint);
+        // layer for revealed part, only background for the rest
+        start = mMetrics != null ? mMetrics.beginPhase(WeekChartMetrics.PHASE_LAYER) : 0;
+        if (revealRight < mViewWidth) {
+            canvas.drawRect(revealRight, 0, mViewWidth, mViewHeight, mRenderer.getStyle().getBackgroundPaint());
+        }
+        if (revealRight > 0) {
+            int saveCount = canvas.save();
+            canvas.clipRect(0, 0, revealRight, mViewHeight);
+            canvas.drawBitmap(mLayerBitmap, 0, 0, null);
+            canvas.restoreToCount(saveCount);
+        }
+        if (mMetrics != null) {
+            mMetrics.endPhase(WeekChartMetrics.PHASE_LAYER, start);
+        }
     }
 
     /**
-     * Draw overlay
+     * Draw live plot, appended amounts are drawn as new segments of the shifted plot,
+     * the live layer measures its own phases so a whole chart is not measured twice
      *
      * @param canvas canvas
      */
-    private void drawOverlay(Canvas canvas) {
-        // calculator max amount
-        int maxAmount = getMaxInArray(amounts);
+    private void drawLiveLayer(Canvas canvas) {
+        mLiveLayer.draw(canvas, mRenderer, mViewWidth, mViewHeight);
+    }
 
-        // create path
-        Path path = new Path();
-        path.moveTo(getXPos(0), getYPos(amounts[0], maxAmount));
+    /**
+     * Release layer bitmap
+     */
+    private void releaseLayer() {
+        if (mLayerBitmap != null) {
+            mLayerBitmap.recycle();
+            mLayerBitmap = null;
+            mLayerCanvas = null;
+        }
+        mLayerDirty = true;
+    }
 
-        // smooth path
-        for (int i = 0; i < amounts.length - 1; i++) {
-            float thisPointX = getXPos(i);
-            float thisPointY = getYPos(amounts[i], maxAmount);
-            float nextPointX = getXPos(i + 1);
-            float nextPointY = getYPos(amounts[si(i + 1, amounts)], maxAmount);
+    /**
+     * Chart is changed, redraw layer and view
+     */
+    private void invalidateChart() {
+        setLayersDirty();
+        invalidate();
+    }
 
-            float startdiffX = (nextPointX - getXPos(si(i - 1, amounts)));
-            float startdiffY = (nextPointY - getYPos(amounts[si(i - 1, amounts)], maxAmount));
-            float endDiffX = (getXPos(si(i + 2, amounts)) - thisPointX);
-            float endDiffY = (getYPos(amounts[si(i + 2, amounts)], maxAmount) - thisPointY);
+    /**
+     * Layer and live plot are drawn again on next draw
+     */
+    private void setLayersDirty() {
+        mLayerDirty = true;
+        if (mLiveLayer != null) {
+            mLiveLayer.invalidate();
+        }
+    }
 
-            float firstControlX = thisPointX + (GRAPH_SMOOTHNES * startdiffX);
-            float firstControlY = thisPointY + (GRAPH_SMOOTHNES * startdiffY);
-            float secondControlX = nextPointX - (GRAPH_SMOOTHNES * endDiffX);
-            float secondControlY = nextPointY - (GRAPH_SMOOTHNES * endDiffY);
+    /**
+     * Chart is changed, it is applied on next frame together with all other changes of this frame
+     *
+     * @param change change flag
+     */
+    private void postChange(int change) {
+        mPendingChanges |= change;
+        scheduleFrame();
+    }
 
-            path.cubicTo(firstControlX, firstControlY, secondControlX, secondControlY, nextPointX, nextPointY);
+    /**
+     * Apply pending changes on next frame of the main thread, a detached view has no frames
+     */
+    private void scheduleFrame() {
+        if (mFrameScheduled || mPendingChanges == 0 || !isAttachedToWindow()) {
+            return;
+        }
+        if (mFrameRunnable == null) {
+            mFrameRunnable = new Runnable() {
+                @Override
+                public void run() {
+                    mFrameScheduled = false;
+                    applyPendingChanges();
+                }
+            };
         }
+        mFrameScheduled = true;
+        postOnAnimation(mFrameRunnable);
+    }
 
-        // move to right top
-        path.lineTo(mViewWidth - mLeftRightOffset - getPaddingRight(), getPaddingTop());
-        // move to left top
-        path.lineTo(mLeftRightOffset + getPaddingLeft(), getPaddingTop());
-        // move to first point
-        path.lineTo(getXPos(0), getYPos(amounts[0], maxAmount));
+    /**
+     * Apply pending changes, style is set once, geometry is updated once and at most one animation is started
+     */
+    private void applyPendingChanges() {
+        int changes = mPendingChanges;
+        if (changes == 0) {
+            return;
+        }
+        mPendingChanges = 0;
+
+        // style first, new amounts are laid out with it
+        if ((changes & CHANGE_STYLE) != 0) {
+            WeekChartStyle style = mPendingStyle;
+            WeekChartStyle oldStyle = mRenderer.getStyle();
+            mPendingStyle = null;
+            if (style != oldStyle) {
+                boolean relayout = style.getSharedLabels() != oldStyle.getSharedLabels() || style.getTextSize() != oldStyle.getTextSize();
+                mRenderer.setStyle(style);
+                if (relayout) {
+                    requestLayout();
+                }
+            }
+        }
+        if ((changes & CHANGE_DATA) != 0) {
+            boolean morph = mPendingMorph;
+            mPendingMorph = false;
+            onAmountsSet(morph);
+        } else if (changes == CHANGE_APPEND && enableLiveMode) {
+            // live plot draws only appended segments
+            invalidate();
+        } else {
+            invalidateChart();
+        }
+    }
 
-        // draw path
-        canvas.drawPath(path, mOverlayPaint);
+    /**
+     * Get right of revealed part of chart
+     *
+     * @return right of revealed part
+     */
+    private int getRevealRight() {
+        return enableAnimation ? (int) (mRevealFraction * mViewWidth) : mViewWidth;
     }
 
     /**
-     * Draw text
+     * Is reveal or morph animation running
      *
-     * @param canvas canvas
+     * @return true if animation is running
+     */
+    private boolean isAnimating() {
+        return mRevealAnimator != null && mRevealAnimator.isRunning();
+    }
+
+    /**
+     * Start animation, running animation is restarted so there is never more than one animator
+     *
+     * @param morph true to morph from old amounts, false to reveal from left to right
      */
-    private void drawText(Canvas canvas) {
-        Rect textBounds = new Rect();
-        for (int i = 0; i < mDays.length; i++) {
-            mTextPaint.getTextBounds(mDays[i], 0, mDays[i].length(), textBounds);
-            int left = getPaddingLeft() + mLeftRightOffset - textBounds.width() / 2 + i * mWidthSpace;
-            int top = mViewHeight - (textBounds.height() + mTextBottomOffset + getPaddingBottom());
-            canvas.drawText(mDays[i], left, top, mTextPaint);
+    private void startAnimation(boolean morph) {
+        // create animator once
+        if (mRevealAnimator == null) {
+            mRevealAnimator = ValueAnimator.ofFloat(0f, 1f);
+            mRevealAnimator.setInterpolator(new DecelerateInterpolator());
+            mRevealAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    // interpolated fraction is not boxed like the animated value
+                    float fraction = animation.getAnimatedFraction();
+                    if (mMetrics != null) {
+                        mMetrics.onAnimationFrame();
+                    }
+                    if (mMorphing) {
+                        // only spline is computed again
+                        mRenderer.getPrimaryPathCache().setMorphFraction(fraction);
+                        invalidate();
+                        return;
+                    }
+                    int oldRevealRight = getRevealRight();
+                    mRevealFraction = fraction;
+                    // only newly revealed part is changed
+                    invalidate(oldRevealRight, 0, getRevealRight(), mViewHeight);
+                }
+            });
+        }
+        mRevealAnimator.cancel();
+        mMorphing = morph;
+        if (mMetrics != null) {
+            mMetrics.onAnimationStart();
+        }
+
+        // hide chart until first animation frame, morph shows the whole chart
+        mRevealFraction = morph ? 1f : 0f;
+        invalidate();
+        mRevealAnimator.setDuration(mRenderer.getStyle().getAnimationTime());
+        mRevealAnimator.start();
+        // hidden view gets no frames until it is shown, see onVisibilityChanged
+        if (!isShown()) {
+            mRevealAnimator.pause();
         }
     }
 
     /**
-     * Draw gradient background
+     * Set amounts data
      *
-     * @param canvas canvas
+     * @param amounts amounts
+     */
+    @Override
+    public void setAmounts(int[] amounts) {
+        prepareAmounts();
+        mRenderer.setAmounts(amounts);
+        postChange(CHANGE_DATA);
+    }
+
+    /**
+     * Set amounts data
+     *
+     * @param amounts amounts
      */
-    private void drawGradient(Canvas canvas) {
-        Shader shader = new LinearGradient(0, 0, 0, mViewHeight, mEndGradientColor, mStartGradientColor, Shader.TileMode.CLAMP);
-        mBackgroundGradientPaint.setShader(shader);
-        canvas.drawRect(mLeftRightOffset + getPaddingLeft(), getPaddingTop(), mViewWidth - mLeftRightOffset - getPaddingRight(), mViewHeight - getPaddingBottom(), mBackgroundGradientPaint);
+    @Override
+    public void setAmounts(float[] amounts) {
+        prepareAmounts();
+        mRenderer.setAmounts(amounts);
+        postChange(CHANGE_DATA);
     }
 
     /**
-     * Draw background
+     * Set amounts data
      *
-     * @param canvas canvas
+     * @param amounts amounts
      */
-    private void drawBackground(Canvas canvas) {
-        canvas.drawRect(0, 0, mViewWidth, mViewHeight, mBackgroundPaint);
+    @Override
+    public void setAmounts(long[] amounts) {
+        prepareAmounts();
+        mRenderer.setAmounts(amounts);
+        postChange(CHANGE_DATA);
     }
 
     /**
-     * Start animation
+     * Set amounts read directly from a series, for example the values of a {@link SeriesFile}
+     *
+     * @param series series, it must not be changed while it is set
      */
-    private void startAnimation() {
-        ValueAnimator animator = ValueAnimator.ofInt(0, 100);
-        animator.setDuration(mAnimationTime);
-        animator.setInterpolator(new DecelerateInterpolator());
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            public void onAnimationUpdate(ValueAnimator animation) {
-                int animationValue = (int) animation.getAnimatedValue();
-                int left = (int) (((float) animationValue / 100) * mViewWidth);
-                mAnimationRect = new Rect(left, 0, mViewWidth, mViewHeight);
-                invalidate(mAnimationRect);
-            }
-        });
-        animator.start();
+    @Override
+    public void setAmounts(FloatSeries series) {
+        prepareAmounts();
+        mRenderer.setAmounts(series);
+        postChange(CHANGE_DATA);
     }
 
     /**
-     * Make sure right index
+     * Set amounts from buckets of aggregator, one amount per bucket
+     *
+     * @param aggregator  aggregator
+     * @param aggregation aggregation of buckets, for example {@link BucketAggregator#SUM}
+     */
+    @Override
+    public void setAmounts(BucketAggregator aggregator, int aggregation) {
+        prepareAmounts();
+        mRenderer.setAmounts(aggregator, aggregation);
+        postChange(CHANGE_DATA);
+    }
+
+    /**
+     * Prepare replacing amounts, only the first replacement of a frame keeps the shown line as start of morph
+     */
+    private void prepareAmounts() {
+        if ((mPendingChanges & CHANGE_DATA) == 0) {
+            mPendingMorph = prepareMorph();
+        }
+    }
+
+    /**
+     * Keep current line as start of morph if morph animation is used
+     *
+     * @return true if current line is kept
+     */
+    private boolean prepareMorph() {
+        return enableAnimation && enableMorphAnimation && mRenderer.getPrimaryPathCache().prepareMorph();
+    }
+
+    /**
+     * Amounts are replaced, redraw or start animation, it is called once per frame
+     *
+     * @param morph true if morph is prepared
+     */
+    private void onAmountsSet(boolean morph) {
+        if (enableAnimation) {
+            // scale of new amounts is needed before morph target is built
+            mRenderer.updateGeometry();
+            setLayersDirty();
+            startAnimation(morph && mRenderer.getPrimaryPathCache().startMorph());
+        } else {
+            invalidateChart();
+        }
+    }
+
+    /**
+     * Append amount, oldest amount is dropped when stream capacity is reached
+     *
+     * @param amount amount
+     */
+    @Override
+    public void append(float amount) {
+        mRenderer.append(amount);
+        if (mLiveLayer != null) {
+            mLiveLayer.onAppend();
+        }
+        postChange(CHANGE_APPEND);
+    }
+
+    /**
+     * Set max number of amounts kept by append
+     *
+     * @param capacity capacity
+     */
+    @Override
+    public void setStreamCapacity(int capacity) {
+        mRenderer.setStreamCapacity(capacity);
+        postChange(CHANGE_GEOMETRY);
+    }
+
+    /**
+     * Set labels
+     *
+     * @param labels labels
+     */
+    @Override
+    public void setLabels(String[] labels) {
+        setStyle(getStyle().buildUpon().setLabels(labels).build());
+    }
+
+    /**
+     * Get max amount, kept incrementally so it is never scanned
+     *
+     * @return max amount
+     */
+    @Override
+    public float getMaxAmount() {
+        return mRenderer.getMaxAmount();
+    }
+
+    /**
+     * Get min amount, kept incrementally so it is never scanned
+     *
+     * @return min amount
+     */
+    @Override
+    public float getMinAmount() {
+        return mRenderer.getMinAmount();
+    }
+
+    /**
+     * Set style, style is shared and not copied, setters of single values create a changed copy.
+     * Style is applied on next frame, only the last style of a frame is laid out
+     *
+     * @param style style
+     */
+    @Override
+    public void setStyle(WeekChartStyle style) {
+        if (style == getStyle()) {
+            return;
+        }
+        mPendingStyle = style;
+        postChange(CHANGE_STYLE);
+    }
+
+    /**
+     * Get style, including a style which is not applied yet
+     *
+     * @return style
+     */
+    @Override
+    public WeekChartStyle getStyle() {
+        return mPendingStyle != null ? mPendingStyle : mRenderer.getStyle();
+    }
+
+    /**
+     * Get renderer, it can be used to render the same chart into a bitmap
+     *
+     * @return renderer
+     */
+    public WeekChartRenderer getRenderer() {
+        return mRenderer;
+    }
+
+    /**
+     * Bind amounts to a recycled view, running animation is reset and amounts are never morphed
+     * from the previously bound data, internal buffers are reused
      *
-     * @param i       i
      * @param amounts amounts
-     * @return index
      */
-    private int si(int i, int[] amounts) {
-        if (i > amounts.length - 1) {
-            return amounts.length - 1;
-        } else if (i < 0) {
-            return 0;
+    @Override
+    public void bind(float[] amounts) {
+        resetAnimation();
+        mRenderer.setAmounts(amounts);
+        mPendingMorph = false;
+        postChange(CHANGE_DATA);
+    }
+
+    /**
+     * Unbind view before it is recycled, animation is reset and amounts of all series are cleared,
+     * internal buffers, paths and layer bitmap are kept for next bind
+     */
+    @Override
+    public void unbind() {
+        resetAnimation();
+        mScrubMarker.hide();
+        mRenderer.clearAmounts();
+        mPendingMorph = false;
+        mPendingChanges &= ~CHANGE_DATA;
+        postChange(CHANGE_GEOMETRY);
+    }
+
+    /**
+     * Cancel running animation and show whole chart
+     */
+    private void resetAnimation() {
+        if (mRevealAnimator != null) {
+            mRevealAnimator.cancel();
         }
-        return i;
+        mMorphing = false;
+        mRevealFraction = 1f;
     }
 
     /**
-     * Get x position
+     * Set scrub enable, touching the chart shows marker and amount of the nearest point
      *
-     * @param i i
-     * @return x position
+     * @param enable enable
      */
-    private int getXPos(int i) {
-        return i * mWidthSpace + mLeftRightOffset + getPaddingLeft();
+    @Override
+    public void setScrubEnable(boolean enable) {
+        enableScrub = enable;
+        if (!enable) {
+            hideScrubMarker();
+        }
     }
 
     /**
-     * Get y position
+     * Set viewport, only amounts inside it and a small margin are mapped and splined
      *
-     * @param value value
-     * @param max   max
-     * @return y position
+     * @param start  index at the left of plot
+     * @param length number of indices between left and right of plot, 0 to show all amounts
+     */
+    @Override
+    public void setViewport(float start, float length) {
+        mRenderer.setViewport(start, length);
+        postChange(CHANGE_GEOMETRY);
+    }
+
+    /**
+     * Reset viewport, all amounts are shown again
      */
-    private int getYPos(int value, int max) {
-        // get height of column
-        value = (int) (((float) value / max) * mMaxColumnHeight);
-        // invert y position
-        value = mMaxColumnHeight - value;
-        // plus to top offset
-        value += mColumnTopOffset;
-        // plus top padding
-        value += getPaddingTop();
-        // return y position
-        return value;
+    @Override
+    public void resetViewport() {
+        setViewport(0, 0);
     }
 
     /**
-     * Get max value of array
+     * Set pan and zoom enable, dragging pans and pinching zooms the viewport, scrubbing is not
+     * used while it is enabled
      *
-     * @param arr arr
-     * @return max value of array
+     * @param enable enable
      */
-    private int getMaxInArray(int[] arr) {
-        int max = arr[0];
-        for (int i = 1; i < arr.length; i++) {
-            if (arr[i] > max) {
-                max = arr[i];
+    @Override
+    public void setPanZoomEnable(boolean enable) {
+        enablePanZoom = enable;
+        if (!enable || mGestureDetector != null) {
+            return;
+        }
+        mGestureDetector = new GestureDetector(getContext(), new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                panBy(distanceX);
+                return true;
             }
+        });
+        mScaleGestureDetector = new ScaleGestureDetector(getContext(), new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                zoomBy(detector.getScaleFactor(), detector.getFocusX());
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Set metrics listener, draw phases, allocations and animation frames are measured while it is set
+     *
+     * @param listener listener, or null to stop measuring
+     */
+    @Override
+    public void setMetricsListener(@Nullable WeekChartMetrics.OnMetricsListener listener) {
+        mMetricsListener = listener;
+        if (listener == null) {
+            mMetrics = null;
+        } else if (mMetrics == null) {
+            mMetrics = new WeekChartMetrics();
         }
-        return max;
+        mRenderer.setMetrics(mMetrics);
     }
 
     /**
-     * Set amounts data
+     * Set min baseline enable
+     *
+     * @param enable true to draw from min amount instead of zero
+     */
+    @Override
+    public void setMinBaselineEnable(boolean enable) {
+        mRenderer.setMinBaselineEnable(enable);
+        postChange(CHANGE_GEOMETRY);
+    }
+
+    /**
+     * Set async geometry enable, geometry is built on a worker thread and the view is
+     * invalidated when it is ready
+     *
+     * @param enable enable
+     */
+    @Override
+    public void setAsyncGeometryEnable(boolean enable) {
+        if (enable == enableAsyncGeometry) {
+            return;
+        }
+        enableAsyncGeometry = enable;
+        mRenderer.setAsyncGeometryEnable(enable, getGeometryCallback());
+        invalidateChart();
+    }
+
+    /**
+     * Get callback of geometry workers
+     *
+     * @return callback
+     */
+    private GeometryWorker.Callback getGeometryCallback() {
+        if (mGeometryCallback == null) {
+            mGeometryCallback = new GeometryWorker.Callback() {
+                @Override
+                public void onGeometryReady() {
+                    postInvalidate();
+                }
+            };
+        }
+        return mGeometryCallback;
+    }
+
+    /**
+     * Add series drawn with its own line color, sharing background, labels and scale with the primary series
      *
      * @param amounts amounts
+     * @param resid   resid of line color
+     * @return index of series
      */
     @Override
-    public void setAmounts(int[] amounts) {
-        this.amounts = amounts;
-        if (enableAnimation) {
-            startAnimation();
+    public int addSeries(float[] amounts, @ColorRes int resid) {
+        int index = mRenderer.addSeries(amounts, ContextCompat.getColor(getContext(), resid));
+        postChange(CHANGE_GEOMETRY);
+        return index;
+    }
+
+    /**
+     * Set amounts of series, index 0 is the primary series
+     *
+     * @param index   index of series
+     * @param amounts amounts
+     */
+    @Override
+    public void setSeriesAmounts(int index, float[] amounts) {
+        if (index == 0) {
+            setAmounts(amounts);
+            return;
+        }
+        mRenderer.setSeriesAmounts(index, amounts);
+        postChange(CHANGE_GEOMETRY);
+    }
+
+    /**
+     * Remove all series except the primary series
+     */
+    @Override
+    public void clearSeries() {
+        mRenderer.clearSeries();
+        postChange(CHANGE_GEOMETRY);
+    }
+
+    /**
+     * Set morph animation enable, new amounts are morphed from the current line instead of revealed
+     * again when both have the same number of points
+     *
+     * @param enable enable
+     */
+    @Override
+    public void setMorphAnimationEnable(boolean enable) {
+        enableMorphAnimation = enable;
+    }
+
+    /**
+     * Set layer cache enable, chart is drawn into a cached bitmap once per data, size or style change
+     * and animation frames only draw that bitmap
+     *
+     * @param enable enable
+     */
+    @Override
+    public void setLayerCacheEnable(boolean enable) {
+        enableLayerCache = enable;
+        if (!enable) {
+            releaseLayer();
+        }
+        invalidate();
+    }
+
+    /**
+     * Set live mode enable, the plot is kept in a bitmap and every amount appended to a full stream
+     * only shifts it and draws the new segment. Whole chart is drawn again when the scale is changed,
+     * while a viewport is set, while there is more than one series or when the stream is decimated
+     *
+     * @param enable enable
+     */
+    @Override
+    public void setLiveModeEnable(boolean enable) {
+        if (enable == enableLiveMode) {
+            return;
+        }
+        enableLiveMode = enable;
+        if (enable) {
+            mLiveLayer = new LiveLayer();
         } else {
-            invalidate();
+            mLiveLayer.release();
+            mLiveLayer = null;
         }
+        invalidate();
     }
 
     /**
@@ -488,8 +1101,7 @@ public class WeekChartView extends View implements WeekChartViewInterface {
      */
     @Override
     public void setViewBackgroundColor(@ColorRes int resid) {
-        mBackgroundColor = ContextCompat.getColor(getContext(), resid);
-        invalidate();
+        setStyle(getStyle().buildUpon().setBackgroundColor(ContextCompat.getColor(getContext(), resid)).build());
     }
 
     /**
@@ -499,9 +1111,7 @@ public class WeekChartView extends View implements WeekChartViewInterface {
      */
     @Override
     public void setViewTextColor(int resid) {
-        mTextColor = ContextCompat.getColor(getContext(), resid);
-        mTextPaint.setColor(mTextColor);
-        invalidate();
+        setStyle(getStyle().buildUpon().setTextColor(ContextCompat.getColor(getContext(), resid)).build());
     }
 
     /**
@@ -511,9 +1121,7 @@ public class WeekChartView extends View implements WeekChartViewInterface {
      */
     @Override
     public void setViewTextSize(int resid) {
-        mTextSize = (int) getContext().getResources().getDimension(resid);
-        mTextPaint.setTextSize(mTextSize);
-        invalidate();
+        setStyle(getStyle().buildUpon().setTextSize((int) getContext().getResources().getDimension(resid)).build());
     }
 
     /**
@@ -523,9 +1131,7 @@ public class WeekChartView extends View implements WeekChartViewInterface {
      */
     @Override
     public void setViewLineColor(int resid) {
-        mLineColor = ContextCompat.getColor(getContext(), resid);
-        mLinePaint.setColor(mLineColor);
-        invalidate();
+        setStyle(getStyle().buildUpon().setLineColor(ContextCompat.getColor(getContext(), resid)).build());
     }
 
     /**
@@ -535,8 +1141,7 @@ public class WeekChartView extends View implements WeekChartViewInterface {
      */
     @Override
     public void setViewStartGradientColor(int resid) {
-        mStartGradientColor = ContextCompat.getColor(getContext(), resid);
-        invalidate();
+        setStyle(getStyle().buildUpon().setStartGradientColor(ContextCompat.getColor(getContext(), resid)).build());
     }
 
     /**
@@ -546,8 +1151,7 @@ public class WeekChartView extends View implements WeekChartViewInterface {
      */
     @Override
     public void setViewEndGradientColor(int resid) {
-        mEndGradientColor = ContextCompat.getColor(getContext(), resid);
-        invalidate();
+        setStyle(getStyle().buildUpon().setEndGradientColor(ContextCompat.getColor(getContext(), resid)).build());
     }
 
     /**
@@ -557,9 +1161,7 @@ public class WeekChartView extends View implements WeekChartViewInterface {
      */
     @Override
     public void setViewLineSize(int resid) {
-        mLineSize = (int) getContext().getResources().getDimension(resid);
-        mLinePaint.setStrokeWidth(mLineSize);
-        invalidate();
+        setStyle(getStyle().buildUpon().setLineSize((int) getContext().getResources().getDimension(resid)).build());
     }
 
     /**
@@ -569,7 +1171,7 @@ public class WeekChartView extends View implements WeekChartViewInterface {
      */
     @Override
     public void setAnimationTime(int milliseconds) {
-        mAnimationTime = milliseconds;
+        setStyle(getStyle().buildUpon().setAnimationTime(milliseconds).build());
     }
 
     /**
@@ -580,6 +1182,9 @@ public class WeekChartView extends View implements WeekChartViewInterface {
     @Override
     public void setAnimationEnable(boolean enable) {
         enableAnimation = enable;
+        if (!enable && mRevealAnimator != null) {
+            mRevealAnimator.end();
+        }
     }
 
-}
\ No newline at end of file
+}
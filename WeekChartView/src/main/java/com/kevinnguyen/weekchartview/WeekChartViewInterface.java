@@ -3,6 +3,9 @@ package com.kevinnguyen.weekchartview;
 import android.support.annotation.ColorRes;
 import android.support.annotation.DimenRes;
 
+import com.kevinnguyen.weekchartview.core.BucketAggregator;
+import com.kevinnguyen.weekchartview.core.FloatSeries;
+
 /**
  * WeekChartViewInterface
  */
@@ -10,6 +13,58 @@ public interface WeekChartViewInterface {
 
     void setAmounts(int[] amounts);
 
+    void setAmounts(float[] amounts);
+
+    void setAmounts(long[] amounts);
+
+    void setAmounts(FloatSeries series);
+
+    void setAmounts(BucketAggregator aggregator, int aggregation);
+
+    void append(float amount);
+
+    void setStreamCapacity(int capacity);
+
+    float getMaxAmount();
+
+    float getMinAmount();
+
+    void setMinBaselineEnable(boolean enable);
+
+    void setAsyncGeometryEnable(boolean enable);
+
+    void setLayerCacheEnable(boolean enable);
+
+    void setLiveModeEnable(boolean enable);
+
+    void setMorphAnimationEnable(boolean enable);
+
+    void setScrubEnable(boolean enable);
+
+    void setViewport(float start, float length);
+
+    void resetViewport();
+
+    void setPanZoomEnable(boolean enable);
+
+    void setMetricsListener(WeekChartMetrics.OnMetricsListener listener);
+
+    int addSeries(float[] amounts, @ColorRes int resid);
+
+    void setSeriesAmounts(int index, float[] amounts);
+
+    void clearSeries();
+
+    void setStyle(WeekChartStyle style);
+
+    WeekChartStyle getStyle();
+
+    void bind(float[] amounts);
+
+    void unbind();
+
+    void setLabels(String[] labels);
+
     void setViewBackgroundColor(@ColorRes int resid);
 
     void setViewTextColor(@ColorRes int resid);
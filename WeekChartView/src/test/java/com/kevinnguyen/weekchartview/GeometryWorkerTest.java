@@ -0,0 +1,216 @@
+package com.kevinnguyen.weekchartview;
+
+import com.kevinnguyen.weekchartview.core.CurveGeometry;
+import com.kevinnguyen.weekchartview.core.FloatRingBuffer;
+import com.kevinnguyen.weekchartview.core.FloatSeries;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * GeometryWorkerTest
+ * <p>
+ * Several threads submit requests while one thread takes ready geometries like the UI thread does.
+ * Every request is built from one repeated value which also sets its length and x positions,
+ * so a geometry mixed from two requests or changed while it is read is detected.
+ */
+public class GeometryWorkerTest {
+
+    private static final int SUBMIT_THREADS = 4;
+    private static final int SUBMITS_PER_THREAD = 500;
+    private static final int FRAMES_PER_TAKE = 16;
+    private static final int COLUMN_TOP_Y = 10;
+    private static final int MAX_COLUMN_HEIGHT = 100;
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    @Test
+    public void concurrentSubmitsOnlyPublishConsistentGeometry() throws Exception {
+        final GeometryWorker worker = new GeometryWorker(new GeometryWorker.Callback() {
+            @Override
+            public void onGeometryReady() {
+            }
+        });
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        // submitting threads
+        Thread[] threads = new Thread[SUBMIT_THREADS];
+        for (int t = 0; t < SUBMIT_THREADS; t++) {
+            final int thread = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        FloatRingBuffer amounts = new FloatRingBuffer();
+                        for (int i = 0; i < SUBMITS_PER_THREAD; i++) {
+                            // caller changes its amounts right after submit
+                            submit(worker, amounts, thread * SUBMITS_PER_THREAD + i);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+
+        // taking thread, keeps reading the taken geometry like frames replay it until a new one is ready
+        start.countDown();
+        CurveGeometry consumed = new CurveGeometry();
+        int taken = 0;
+        for (int frame = 0; isAlive(threads); frame++) {
+            // several frames read the same geometry, so the worker publishes more than once meanwhile
+            CurveGeometry ready = frame % FRAMES_PER_TAKE == 0 ? worker.takeReady(consumed) : null;
+            if (ready != null) {
+                consumed = ready;
+                taken++;
+            }
+            if (taken > 0) {
+                assertConsistent(consumed);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        // newest request is always built last
+        int last = SUBMIT_THREADS * SUBMITS_PER_THREAD;
+        submit(worker, new FloatRingBuffer(), last);
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            CurveGeometry ready = worker.takeReady(consumed);
+            if (ready != null) {
+                assertConsistent(ready);
+                consumed = ready;
+                taken++;
+                if (ready.getValue(0) == last) {
+                    break;
+                }
+            }
+            if (System.currentTimeMillis() > deadline) {
+                fail("newest request is not built, " + taken + " geometries taken");
+            }
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+        assertNull(worker.takeReady(consumed));
+    }
+
+    @Test
+    public void sourceIsReadByWorkerWithoutCopy() throws Exception {
+        final Thread submitThread = Thread.currentThread();
+        FloatSeries source = new FloatSeries() {
+            @Override
+            public int size() {
+                return 1000;
+            }
+
+            @Override
+            public float get(int i) {
+                if (Thread.currentThread() == submitThread) {
+                    throw new AssertionError("source is copied by submitting thread");
+                }
+                return 7;
+            }
+
+            @Override
+            public float getMax() {
+                return 7;
+            }
+
+            @Override
+            public float getMin() {
+                return 7;
+            }
+
+            @Override
+            public float getMax(int from, int to) {
+                return 7;
+            }
+
+            @Override
+            public float getMin(int from, int to) {
+                return 7;
+            }
+        };
+        final CountDownLatch ready = new CountDownLatch(1);
+        GeometryWorker worker = new GeometryWorker(new GeometryWorker.Callback() {
+            @Override
+            public void onGeometryReady() {
+                ready.countDown();
+            }
+        });
+        worker.submit(source, 500, getLength(7), 0, 100, 7, 1, COLUMN_TOP_Y, MAX_COLUMN_HEIGHT);
+        ready.await();
+        assertConsistent(worker.takeReady(new CurveGeometry()));
+    }
+
+    /**
+     * Submit request of one repeated value, the buffer is overwritten right after
+     *
+     * @param worker  worker
+     * @param amounts reused amounts
+     * @param value   value
+     */
+    private static void submit(GeometryWorker worker, FloatRingBuffer amounts, int value) {
+        float[] values = new float[getLength(value)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = value;
+        }
+        amounts.set(values);
+        worker.submit(amounts, 0, values.length, 0, Integer.MAX_VALUE, value, 1, COLUMN_TOP_Y, MAX_COLUMN_HEIGHT);
+        amounts.set(new float[]{-1, -1});
+    }
+
+    /**
+     * Get length of request of value
+     *
+     * @param value value
+     * @return length
+     */
+    private static int getLength(float value) {
+        return 500 + (int) value % 500;
+    }
+
+    /**
+     * Assert that geometry is built from exactly one request
+     *
+     * @param geometry geometry
+     */
+    private static void assertConsistent(CurveGeometry geometry) {
+        float value = geometry.getValue(0);
+        assertEquals(getLength(value), geometry.getCount());
+        float y = geometry.getPointY(0);
+        for (int i = 0; i < geometry.getCount(); i++) {
+            assertEquals(value, geometry.getValue(i), 0);
+            assertEquals(value + i, geometry.getPointX(i), 0);
+            assertEquals(y, geometry.getPointY(i), 0);
+        }
+    }
+
+    /**
+     * Is any thread alive
+     *
+     * @param threads threads
+     * @return true if any thread is alive
+     */
+    private static boolean isAlive(Thread[] threads) {
+        for (Thread thread : threads) {
+            if (thread.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,219 @@
+package com.kevinnguyen.weekchartview;
+
+import android.animation.ValueAnimator;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * WeekChartViewAllocationTest
+ * <p>
+ * Steady state frames are drawn many times after a warm up and must not allocate. Bitmaps, shaders
+ * and geometry arrays are counted by {@link WeekChartMetrics}. Heap allocations of the drawing thread
+ * are counted by the JVM while the view draws into a canvas which does nothing, paths and canvases of
+ * the test runtime allocate by themselves, so frames which build paths are only checked by metrics
+ * and layer bitmaps, which need a real canvas, are not drawn.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class WeekChartViewAllocationTest {
+
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 200;
+    private static final int FRAMES = 1000;
+    private static final float[] AMOUNTS = {120, 80, 300, 40, 220, 160, 90};
+    private static final float[] OTHER_AMOUNTS = {60, 250, 110, 180, 20, 300, 140};
+
+    private final Canvas mCanvas = new NoDrawCanvas();
+    private WeekChartView mView;
+    private WeekChartMetrics mMetrics;
+
+    @Before
+    public void setUp() {
+        mView = new WeekChartView(RuntimeEnvironment.application);
+        mView.setMetricsListener(new WeekChartMetrics.OnMetricsListener() {
+            @Override
+            public void onDrawMetrics(WeekChartMetrics metrics) {
+                mMetrics = metrics;
+            }
+        });
+    }
+
+    @Test
+    public void drawDoesNotAllocate() {
+        mView.setAnimationEnable(false);
+        mView.setAmounts(AMOUNTS);
+        layout();
+        assertFramesDoNotAllocate(null);
+    }
+
+    @Test
+    public void revealFramesDoNotAllocate() {
+        mView.setAnimationEnable(true);
+        mView.setAmounts(AMOUNTS);
+        layout();
+        mView.onDraw(mCanvas);
+        ValueAnimator animator = getRevealAnimator();
+        assertTrue(animator.isStarted());
+        assertFramesDoNotAllocate(animator);
+        assertTrue(mMetrics.getAnimationFrameCount() >= FRAMES);
+    }
+
+    @Test
+    public void morphFramesDoNotAllocateGeometry() {
+        mView.setAnimationEnable(true);
+        mView.setMorphAnimationEnable(true);
+        mView.setAmounts(AMOUNTS);
+        layout();
+        mView.onDraw(mCanvas);
+
+        // first morph creates morph arrays
+        morph(OTHER_AMOUNTS);
+        mMetrics.reset();
+        morph(AMOUNTS);
+        morph(OTHER_AMOUNTS);
+        assertEquals(0, mMetrics.getAllocationCount());
+        assertTrue(mMetrics.getAnimationFrameCount() > 0);
+    }
+
+    /**
+     * Measure and lay out view
+     */
+    private void layout() {
+        mView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        mView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Assert that frames after warm up allocate neither internally nor on the heap
+     *
+     * @param animator animator moved before each frame, or null
+     */
+    private void assertFramesDoNotAllocate(ValueAnimator animator) {
+        drawFrames(animator);
+        mMetrics.reset();
+        assertEquals(0, drawFrames(animator));
+        assertEquals(0, mMetrics.getAllocationCount());
+        assertEquals(FRAMES, mMetrics.getDrawCount());
+    }
+
+    /**
+     * Draw frames
+     *
+     * @param animator animator moved before each frame, or null
+     * @return bytes allocated by drawing thread
+     */
+    private long drawFrames(ValueAnimator animator) {
+        long bytes = getAllocatedBytes();
+        for (int i = 0; i < FRAMES; i++) {
+            if (animator != null) {
+                animator.setCurrentFraction(i % 100 / 100f);
+            }
+            mView.onDraw(mCanvas);
+        }
+        return getAllocatedBytes() - bytes;
+    }
+
+    /**
+     * Set amounts and draw every frame of their morph
+     *
+     * @param amounts amounts
+     */
+    private void morph(float[] amounts) {
+        mView.setAmounts(amounts);
+        mView.onDraw(mCanvas);
+        ValueAnimator animator = getRevealAnimator();
+        for (int i = 0; i <= 100; i++) {
+            animator.setCurrentFraction(i / 100f);
+            mView.onDraw(mCanvas);
+        }
+    }
+
+    /**
+     * Get reveal animator of view
+     *
+     * @return animator
+     */
+    private ValueAnimator getRevealAnimator() {
+        return ReflectionHelpers.getField(mView, "mRevealAnimator");
+    }
+
+    /**
+     * Get bytes allocated by current thread
+     *
+     * @return bytes
+     */
+    private static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Canvas which draws nothing, so it does not allocate
+     */
+    private static class NoDrawCanvas extends Canvas {
+
+        @Override
+        public int save() {
+            return 1;
+        }
+
+        @Override
+        public void restoreToCount(int saveCount) {
+        }
+
+        @Override
+        public boolean clipRect(float left, float top, float right, float bottom) {
+            return true;
+        }
+
+        @Override
+        public boolean clipRect(int left, int top, int right, int bottom) {
+            return true;
+        }
+
+        @Override
+        public void translate(float dx, float dy) {
+        }
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        }
+
+        @Override
+        public void drawPath(Path path, Paint paint) {
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, Paint paint) {
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        }
+
+        @Override
+        public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        }
+
+        @Override
+        public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        }
+
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.kevinnguyen.weekchartview;
+
+import android.animation.ValueAnimator;
+import android.app.Activity;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * WeekChartViewAnimatorTest
+ * <p>
+ * Animators which get animation frames are counted in the animation handler of the main thread,
+ * so animators which are stacked or leaked by the view are seen even if the view lost them.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class WeekChartViewAnimatorTest {
+
+    private static final int ANIMATION_TIME = 1000;
+    private static final int FRAME_MILLIS = 16;
+    private static final float[] AMOUNTS = {120, 80, 300, 40, 220, 160, 90};
+    private static final float[] OTHER_AMOUNTS = {60, 250, 110, 180, 20, 300, 140};
+
+    private Activity mActivity;
+    private WeekChartView mView;
+
+    @Before
+    public void setUp() {
+        // one animation frame per frame time instead of all frames at once
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_MILLIS);
+        mActivity = Robolectric.setupActivity(Activity.class);
+        mView = new WeekChartView(mActivity);
+        mView.setAnimationEnable(true);
+        mView.setAnimationTime(ANIMATION_TIME);
+        mActivity.setContentView(mView);
+        advance(FRAME_MILLIS);
+    }
+
+    @After
+    public void tearDown() {
+        ShadowChoreographer.setPostFrameCallbackDelay(0);
+    }
+
+    @Test
+    public void newAmountsRestartOneAnimator() {
+        for (int i = 0; i < 20; i++) {
+            mView.setAmounts(i % 2 == 0 ? AMOUNTS : OTHER_AMOUNTS);
+            advance(FRAME_MILLIS);
+            assertEquals(1, getActiveAnimatorCount());
+        }
+
+        // finished animator leaves no frames running
+        advance(2 * ANIMATION_TIME);
+        assertEquals(0, getActiveAnimatorCount());
+        assertFalse(getRevealAnimator().isStarted());
+    }
+
+    @Test
+    public void burstOfAmountsStartsOneAnimator() {
+        mView.setMorphAnimationEnable(true);
+        for (int i = 0; i < 20; i++) {
+            mView.setAmounts(i % 2 == 0 ? AMOUNTS : OTHER_AMOUNTS);
+        }
+        advance(FRAME_MILLIS);
+        assertEquals(1, getActiveAnimatorCount());
+        mView.unbind();
+        advance(FRAME_MILLIS);
+        assertEquals(0, getActiveAnimatorCount());
+    }
+
+    @Test
+    public void hiddenViewPausesAnimator() {
+        mView.setAmounts(AMOUNTS);
+        advance(FRAME_MILLIS);
+        assertEquals(1, getActiveAnimatorCount());
+
+        mView.setVisibility(View.INVISIBLE);
+        advance(FRAME_MILLIS);
+        assertEquals(0, getActiveAnimatorCount());
+        assertTrue(getRevealAnimator().isPaused());
+
+        // hidden view does not finish its animation
+        advance(2 * ANIMATION_TIME);
+        assertTrue(getRevealAnimator().isStarted());
+
+        mView.setVisibility(View.VISIBLE);
+        advance(FRAME_MILLIS);
+        assertEquals(1, getActiveAnimatorCount());
+        assertFalse(getRevealAnimator().isPaused());
+
+        // animation started while hidden waits until the view is shown
+        mView.setVisibility(View.INVISIBLE);
+        mView.setAmounts(OTHER_AMOUNTS);
+        advance(FRAME_MILLIS);
+        assertEquals(0, getActiveAnimatorCount());
+        assertTrue(getRevealAnimator().isStarted());
+        assertTrue(getRevealAnimator().isPaused());
+
+        mView.setVisibility(View.VISIBLE);
+        advance(FRAME_MILLIS);
+        assertEquals(1, getActiveAnimatorCount());
+        assertFalse(getRevealAnimator().isPaused());
+    }
+
+    @Test
+    public void detachEndsAnimator() {
+        mView.setAmounts(AMOUNTS);
+        advance(FRAME_MILLIS);
+        assertEquals(1, getActiveAnimatorCount());
+
+        ((ViewGroup) mView.getParent()).removeView(mView);
+        advance(FRAME_MILLIS);
+        assertEquals(0, getActiveAnimatorCount());
+        assertFalse(getRevealAnimator().isStarted());
+
+        // amounts set while detached are animated after attach
+        mView.setAmounts(OTHER_AMOUNTS);
+        advance(FRAME_MILLIS);
+        assertEquals(0, getActiveAnimatorCount());
+        mActivity.setContentView(mView);
+        advance(FRAME_MILLIS);
+        assertEquals(1, getActiveAnimatorCount());
+    }
+
+    /**
+     * Run main thread tasks and animation frames of given time
+     *
+     * @param millis milliseconds
+     */
+    private static void advance(long millis) {
+        for (long time = 0; time < millis; time += FRAME_MILLIS) {
+            ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Get reveal animator of view
+     *
+     * @return animator
+     */
+    private ValueAnimator getRevealAnimator() {
+        return ReflectionHelpers.getField(mView, "mRevealAnimator");
+    }
+
+    /**
+     * Get number of animators which get animation frames on the main thread
+     *
+     * @return animator count
+     */
+    private static int getActiveAnimatorCount() {
+        Object handler = ReflectionHelpers.callStaticMethod(
+                ReflectionHelpers.loadClass(ValueAnimator.class.getClassLoader(), "android.animation.AnimationHandler"),
+                "getInstance");
+        List<?> callbacks = ReflectionHelpers.getField(handler, "mAnimationCallbacks");
+        int count = 0;
+        for (Object callback : callbacks) {
+            if (callback instanceof ValueAnimator) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
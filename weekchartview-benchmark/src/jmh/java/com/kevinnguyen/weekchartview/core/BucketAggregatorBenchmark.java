@@ -0,0 +1,53 @@
+package com.kevinnguyen.weekchartview.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * BucketAggregatorBenchmark
+ * <p>
+ * Average time of {@link BucketAggregator} reducing 1k, 100k and 10M random events into the 7 day
+ * buckets of a week and reading their averages. 1k events are reduced on the calling thread, larger
+ * batches are split into fork/join tasks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+public class BucketAggregatorBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int eventCount;
+
+    private long[] mTimestamps;
+    private float[] mValues;
+    private BucketAggregator mAggregator;
+    private float[] mOut;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(eventCount);
+        mTimestamps = new long[eventCount];
+        mValues = new float[eventCount];
+        for (int i = 0; i < eventCount; i++) {
+            mTimestamps[i] = (long) (random.nextDouble() * 7 * BucketAggregator.DAY_MILLIS);
+            mValues[i] = random.nextFloat() * 1000;
+        }
+        mAggregator = new BucketAggregator(0, BucketAggregator.DAY_MILLIS, 7);
+        mOut = new float[7];
+    }
+
+    @Benchmark
+    public float[] aggregate() {
+        mAggregator.clear();
+        mAggregator.add(mTimestamps, mValues);
+        mAggregator.getBuckets(BucketAggregator.AVERAGE, mOut);
+        return mOut;
+    }
+
+}
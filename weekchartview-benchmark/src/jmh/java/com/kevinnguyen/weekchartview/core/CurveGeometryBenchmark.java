@@ -0,0 +1,64 @@
+package com.kevinnguyen.weekchartview.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * CurveGeometryBenchmark
+ * <p>
+ * Average time of {@link CurveGeometry#build} for 7, 1k and 100k points on plots 320 and 1080 pixels
+ * wide, over the whole series and over the last quarter as a visible window.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+public class CurveGeometryBenchmark {
+
+    private static final int COLUMN_TOP_Y = 40;
+    private static final int MAX_COLUMN_HEIGHT = 400;
+
+    @Param({"7", "1000", "100000"})
+    public int pointCount;
+
+    @Param({"320", "1080"})
+    public int plotWidth;
+
+    private FloatRingBuffer mAmounts;
+    private CurveGeometry mGeometry;
+    private float mMax;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(pointCount);
+        float[] amounts = new float[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            amounts[i] = random.nextFloat() * 1000;
+        }
+        mAmounts = new FloatRingBuffer();
+        mAmounts.set(amounts);
+        mMax = mAmounts.getMax();
+        mGeometry = new CurveGeometry();
+    }
+
+    @Benchmark
+    public int build() {
+        float pointSpace = pointCount > 1 ? (float) plotWidth / (pointCount - 1) : 0;
+        mGeometry.build(mAmounts, 0, pointCount, 0, mMax, 0, pointSpace, COLUMN_TOP_Y, MAX_COLUMN_HEIGHT);
+        return mGeometry.getCount();
+    }
+
+    @Benchmark
+    public int buildWindow() {
+        int length = Math.max(1, pointCount / 4);
+        float pointSpace = length > 1 ? (float) plotWidth / (length - 1) : 0;
+        mGeometry.build(mAmounts, pointCount - length, length, 0, mMax, 0, pointSpace, COLUMN_TOP_Y, MAX_COLUMN_HEIGHT);
+        return mGeometry.getCount();
+    }
+
+}
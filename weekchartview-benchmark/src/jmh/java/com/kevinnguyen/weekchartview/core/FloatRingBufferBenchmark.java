@@ -0,0 +1,67 @@
+package com.kevinnguyen.weekchartview.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * FloatRingBufferBenchmark
+ * <p>
+ * Average time of max and min scans of {@link FloatRingBuffer} for 7, 1k and 100k points: replacing all
+ * amounts and scanning them, max minus min of the last quarter as a visible window, and appending one
+ * amount to a full stream of the same capacity.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+public class FloatRingBufferBenchmark {
+
+    @Param({"7", "1000", "100000"})
+    public int pointCount;
+
+    private float[] mValues;
+    private FloatRingBuffer mBuffer;
+    private FloatRingBuffer mStream;
+    private float mNext;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(pointCount);
+        mValues = new float[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            mValues[i] = random.nextFloat() * 1000;
+        }
+        mBuffer = new FloatRingBuffer();
+        mBuffer.set(mValues);
+        mBuffer.getMax(0, pointCount - 1);
+        mStream = new FloatRingBuffer();
+        mStream.setCapacity(pointCount);
+        mStream.set(mValues);
+        mStream.getMax(0, pointCount - 1);
+    }
+
+    @Benchmark
+    public float setAndGetMax() {
+        mBuffer.set(mValues);
+        return mBuffer.getMax();
+    }
+
+    @Benchmark
+    public float getWindowMax() {
+        int length = Math.max(1, pointCount / 4);
+        return mBuffer.getMax(pointCount - length, pointCount - 1) - mBuffer.getMin(pointCount - length, pointCount - 1);
+    }
+
+    @Benchmark
+    public float appendAndGetMax() {
+        mNext = (mNext + 37) % 1000;
+        mStream.add(mNext);
+        return mStream.getMax();
+    }
+
+}
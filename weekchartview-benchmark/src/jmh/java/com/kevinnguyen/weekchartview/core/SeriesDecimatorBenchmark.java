@@ -0,0 +1,58 @@
+package com.kevinnguyen.weekchartview.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * SeriesDecimatorBenchmark
+ * <p>
+ * Average time of {@link SeriesDecimator#decimate} for 7, 1k and 100k points to plots 320 and 1080
+ * pixels wide, over the whole series and over the last quarter as a visible window.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+public class SeriesDecimatorBenchmark {
+
+    @Param({"7", "1000", "100000"})
+    public int pointCount;
+
+    @Param({"320", "1080"})
+    public int plotWidth;
+
+    private FloatRingBuffer mValues;
+    private int[] mOutIndices;
+    private float[] mOutValues;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(pointCount);
+        float[] values = new float[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            values[i] = random.nextFloat() * 1000;
+        }
+        mValues = new FloatRingBuffer();
+        mValues.set(values);
+        int size = SeriesDecimator.getOutputSize(pointCount, plotWidth);
+        mOutIndices = new int[size];
+        mOutValues = new float[size];
+    }
+
+    @Benchmark
+    public int decimate() {
+        return SeriesDecimator.decimate(mValues, plotWidth, mOutIndices, mOutValues);
+    }
+
+    @Benchmark
+    public int decimateWindow() {
+        int length = Math.max(1, pointCount / 4);
+        return SeriesDecimator.decimate(mValues, pointCount - length, length, plotWidth, mOutIndices, mOutValues);
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.kevinnguyen.weekchartview.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * SeriesFileBenchmark
+ * <p>
+ * Average time of opening a {@link SeriesFile} of 1k, 1M and 50M points and scaling a chart to all of
+ * its values and to its second half. Time and heap allocation (run with -prof gc) do not grow with the
+ * file size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class SeriesFileBenchmark {
+
+    @Param({"1000", "1000000", "50000000"})
+    public int pointCount;
+
+    private File mFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        mFile = File.createTempFile("series", ".bin");
+        SeriesFile.Writer writer = new SeriesFile.Writer(mFile, pointCount);
+        try {
+            for (int i = 0; i < pointCount; i++) {
+                writer.add(i * 1000L, (float) Math.sin(i * 0.001) * 1000);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mFile.delete();
+    }
+
+    @Benchmark
+    public float openAndScale() throws IOException {
+        SeriesFile file = SeriesFile.open(mFile);
+        try {
+            FloatSeries values = file.getValues();
+            ChartScale scale = new ChartScale();
+            scale.include(values);
+            scale.include(values, pointCount / 2, pointCount - 1);
+            return scale.getRange(true);
+        } finally {
+            file.close();
+        }
+    }
+
+}
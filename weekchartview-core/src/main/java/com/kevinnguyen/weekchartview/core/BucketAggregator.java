@@ -0,0 +1,315 @@
+package com.kevinnguyen.weekchartview.core;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * BucketAggregator
+ * <p>
+ * Reduces raw timestamped events into fixed duration buckets, for example one bucket per day of a week.
+ * Every bucket keeps sum, count and max, so sum, average, max and count can be read at any time.
+ * <p>
+ * Large batches are split over all cores with fork-join, every task reduces its part into its own
+ * buckets and the parts are merged, so no bucket is shared between threads. Single events and small
+ * batches are added directly, so a stream can be aggregated incrementally.
+ * <p>
+ * Adding is meant for a worker thread, buckets can be read from any thread.
+ * Buckets are fixed durations from start time, days with a daylight saving change are not adjusted.
+ */
+public class BucketAggregator {
+
+    // bucket durations
+    public static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    public static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    // aggregations
+    public static final int SUM = 0;
+    public static final int AVERAGE = 1;
+    public static final int MAX = 2;
+    public static final int COUNT = 3;
+
+    // events per task, smaller batches are not split
+    private static final int TASK_SIZE = 1 << 16;
+
+    // pool shared by all aggregators, created on first parallel batch
+    private static ForkJoinPool sPool;
+
+    // buckets
+    private final long mStartTime;
+    private final long mBucketDuration;
+    private final int mBucketCount;
+    private final Buckets mBuckets;
+
+    /**
+     * Constructor
+     *
+     * @param startTime      start time of first bucket, in the unit of timestamps
+     * @param bucketDuration duration of a bucket, for example {@link #DAY_MILLIS}
+     * @param bucketCount    number of buckets
+     */
+    public BucketAggregator(long startTime, long bucketDuration, int bucketCount) {
+        if (bucketDuration <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("bucket duration and count must be positive");
+        }
+        mStartTime = startTime;
+        mBucketDuration = bucketDuration;
+        mBucketCount = bucketCount;
+        mBuckets = new Buckets(bucketCount);
+    }
+
+    /**
+     * Get number of buckets
+     *
+     * @return bucket count
+     */
+    public int getBucketCount() {
+        return mBucketCount;
+    }
+
+    /**
+     * Add event, events outside of all buckets are ignored
+     *
+     * @param timestamp timestamp
+     * @param value     value
+     */
+    public synchronized void add(long timestamp, float value) {
+        mBuckets.add(mStartTime, mBucketDuration, timestamp, value);
+    }
+
+    /**
+     * Add events, large batches are reduced in parallel
+     *
+     * @param timestamps timestamps
+     * @param values     values, same length as timestamps
+     */
+    public void add(long[] timestamps, float[] values) {
+        add(timestamps, values, 0, timestamps.length);
+    }
+
+    /**
+     * Add range of events, large batches are reduced in parallel
+     *
+     * @param timestamps timestamps
+     * @param values     values
+     * @param offset     first event
+     * @param length     number of events
+     */
+    public void add(long[] timestamps, float[] values, int offset, int length) {
+        if (length <= TASK_SIZE) {
+            synchronized (this) {
+                mBuckets.addAll(mStartTime, mBucketDuration, timestamps, values, offset, length);
+            }
+            return;
+        }
+
+        // reduce without lock, only merging blocks readers
+        Buckets part = getPool().invoke(new ReduceTask(this, timestamps, values, offset, length));
+        synchronized (this) {
+            mBuckets.merge(part);
+        }
+    }
+
+    /**
+     * Remove all events
+     */
+    public synchronized void clear() {
+        mBuckets.clear();
+    }
+
+    /**
+     * Get aggregated buckets
+     *
+     * @param aggregation {@link #SUM}, {@link #AVERAGE}, {@link #MAX} or {@link #COUNT}
+     * @return one value per bucket
+     */
+    public float[] getBuckets(int aggregation) {
+        float[] out = new float[mBucketCount];
+        getBuckets(aggregation, out);
+        return out;
+    }
+
+    /**
+     * Get aggregated buckets into an array, empty buckets are 0
+     *
+     * @param aggregation {@link #SUM}, {@link #AVERAGE}, {@link #MAX} or {@link #COUNT}
+     * @param out         output, at least bucket count long
+     */
+    public synchronized void getBuckets(int aggregation, float[] out) {
+        Buckets buckets = mBuckets;
+        for (int i = 0; i < mBucketCount; i++) {
+            long count = buckets.mCounts[i];
+            if (count == 0) {
+                out[i] = 0;
+                continue;
+            }
+            switch (aggregation) {
+                case SUM:
+                    out[i] = (float) buckets.mSums[i];
+                    break;
+                case AVERAGE:
+                    out[i] = (float) (buckets.mSums[i] / count);
+                    break;
+                case MAX:
+                    out[i] = buckets.mMax[i];
+                    break;
+                case COUNT:
+                    out[i] = count;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown aggregation " + aggregation);
+            }
+        }
+    }
+
+    /**
+     * Get shared pool
+     *
+     * @return pool
+     */
+    private static synchronized ForkJoinPool getPool() {
+        if (sPool == null) {
+            sPool = new ForkJoinPool();
+        }
+        return sPool;
+    }
+
+    /**
+     * Sum, count and max of every bucket
+     */
+    private static final class Buckets {
+
+        private final double[] mSums;
+        private final long[] mCounts;
+        private final float[] mMax;
+
+        /**
+         * Constructor
+         *
+         * @param bucketCount number of buckets
+         */
+        Buckets(int bucketCount) {
+            mSums = new double[bucketCount];
+            mCounts = new long[bucketCount];
+            mMax = new float[bucketCount];
+        }
+
+        /**
+         * Add event
+         *
+         * @param startTime      start time of first bucket
+         * @param bucketDuration duration of a bucket
+         * @param timestamp      timestamp
+         * @param value          value
+         */
+        void add(long startTime, long bucketDuration, long timestamp, float value) {
+            if (timestamp < startTime) {
+                return;
+            }
+            long bucket = (timestamp - startTime) / bucketDuration;
+            if (bucket >= mCounts.length) {
+                return;
+            }
+            int i = (int) bucket;
+            if (mCounts[i] == 0 || value > mMax[i]) {
+                mMax[i] = value;
+            }
+            mSums[i] += value;
+            mCounts[i]++;
+        }
+
+        /**
+         * Add range of events
+         *
+         * @param startTime      start time of first bucket
+         * @param bucketDuration duration of a bucket
+         * @param timestamps     timestamps
+         * @param values         values
+         * @param offset         first event
+         * @param length         number of events
+         */
+        void addAll(long startTime, long bucketDuration, long[] timestamps, float[] values, int offset, int length) {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                add(startTime, bucketDuration, timestamps[i], values[i]);
+            }
+        }
+
+        /**
+         * Merge other buckets into these buckets
+         *
+         * @param other other buckets
+         */
+        void merge(Buckets other) {
+            for (int i = 0; i < mCounts.length; i++) {
+                if (other.mCounts[i] == 0) {
+                    continue;
+                }
+                if (mCounts[i] == 0 || other.mMax[i] > mMax[i]) {
+                    mMax[i] = other.mMax[i];
+                }
+                mSums[i] += other.mSums[i];
+                mCounts[i] += other.mCounts[i];
+            }
+        }
+
+        /**
+         * Remove all events
+         */
+        void clear() {
+            for (int i = 0; i < mCounts.length; i++) {
+                mSums[i] = 0;
+                mCounts[i] = 0;
+                mMax[i] = 0;
+            }
+        }
+
+    }
+
+    /**
+     * Reduces a range of events into new buckets, large ranges are split in halves
+     */
+    private static final class ReduceTask extends RecursiveTask<Buckets> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BucketAggregator mAggregator;
+        private final long[] mTimestamps;
+        private final float[] mValues;
+        private final int mOffset;
+        private final int mLength;
+
+        /**
+         * Constructor
+         *
+         * @param aggregator aggregator, its start time, bucket duration and count are used
+         * @param timestamps timestamps
+         * @param values     values
+         * @param offset     first event
+         * @param length     number of events
+         */
+        ReduceTask(BucketAggregator aggregator, long[] timestamps, float[] values, int offset, int length) {
+            mAggregator = aggregator;
+            mTimestamps = timestamps;
+            mValues = values;
+            mOffset = offset;
+            mLength = length;
+        }
+
+        @Override
+        protected Buckets compute() {
+            if (mLength <= TASK_SIZE) {
+                Buckets buckets = new Buckets(mAggregator.mBucketCount);
+                buckets.addAll(mAggregator.mStartTime, mAggregator.mBucketDuration, mTimestamps, mValues, mOffset, mLength);
+                return buckets;
+            }
+            int half = mLength / 2;
+            ReduceTask left = new ReduceTask(mAggregator, mTimestamps, mValues, mOffset, half);
+            ReduceTask right = new ReduceTask(mAggregator, mTimestamps, mValues, mOffset + half, mLength - half);
+            left.fork();
+            Buckets buckets = right.compute();
+            buckets.merge(left.join());
+            return buckets;
+        }
+
+    }
+
+}
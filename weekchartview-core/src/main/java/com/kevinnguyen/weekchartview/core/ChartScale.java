@@ -0,0 +1,99 @@
+package com.kevinnguyen.weekchartview.core;
+
+/**
+ * ChartScale
+ * <p>
+ * Shared vertical scale of several series, so they can be compared in one chart.
+ * Max and min values come from the extremes kept by each {@link FloatSeries},
+ * no series is scanned.
+ */
+public class ChartScale {
+
+    // max and min of included series
+    private float mMax;
+    private float mMin;
+    private boolean mEmpty = true;
+
+    /**
+     * Remove all included series
+     */
+    public void reset() {
+        mMax = 0;
+        mMin = 0;
+        mEmpty = true;
+    }
+
+    /**
+     * Include all amounts of series
+     *
+     * @param amounts amounts
+     */
+    public void include(FloatSeries amounts) {
+        if (amounts.size() == 0) {
+            return;
+        }
+        include(amounts.getMax(), amounts.getMin());
+    }
+
+    /**
+     * Include index range of series, range is clamped to the amounts
+     *
+     * @param amounts amounts
+     * @param from    first index
+     * @param to      last index, inclusive
+     */
+    public void include(FloatSeries amounts, int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(amounts.size() - 1, to);
+        if (from > to) {
+            return;
+        }
+        include(amounts.getMax(from, to), amounts.getMin(from, to));
+    }
+
+    /**
+     * Is empty
+     *
+     * @return true if no amount is included
+     */
+    public boolean isEmpty() {
+        return mEmpty;
+    }
+
+    /**
+     * Get baseline, amount drawn at the bottom of columns
+     *
+     * @param minBaseline true to start at min amount instead of 0
+     * @return baseline
+     */
+    public float getBaseline(boolean minBaseline) {
+        return minBaseline ? mMin : 0;
+    }
+
+    /**
+     * Get range from baseline to max amount
+     *
+     * @param minBaseline true to start at min amount instead of 0
+     * @return range
+     */
+    public float getRange(boolean minBaseline) {
+        return mMax - getBaseline(minBaseline);
+    }
+
+    /**
+     * Include max and min
+     *
+     * @param max max
+     * @param min min
+     */
+    private void include(float max, float min) {
+        if (mEmpty || max > mMax) {
+            mMax = max;
+        }
+        if (mEmpty || min < mMin) {
+            mMin = min;
+        }
+        mEmpty = false;
+    }
+
+}
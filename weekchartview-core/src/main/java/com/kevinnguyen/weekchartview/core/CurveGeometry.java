@@ -0,0 +1,295 @@
+package com.kevinnguyen.weekchartview.core;
+
+/**
+ * CurveGeometry
+ * <p>
+ * Scaled points and spline control points of the chart line in primitive arrays.
+ * Building does not touch any view or path, so it can run on a worker thread or on the JVM,
+ * replaying the result into paths is cheap and done by the chart on the UI thread.
+ */
+public class CurveGeometry {
+
+    // smooth line value
+    private static final float GRAPH_SMOOTHNES = 0.15f;
+
+    // decimated points
+    private int[] mIndices = new int[0];
+    private float[] mValues = new float[0];
+    private int mFrom;
+    private float mPointSpace;
+    private float mStartX;
+
+    // scaled points
+    private float[] mPointX = new float[0];
+    private float[] mPointY = new float[0];
+
+    // control points of each segment
+    private float[] mFirstControlX = new float[0];
+    private float[] mFirstControlY = new float[0];
+    private float[] mSecondControlX = new float[0];
+    private float[] mSecondControlY = new float[0];
+
+    // number of points
+    private int mCount;
+
+    // number of times arrays are created again
+    private int mAllocationCount;
+
+    /**
+     * Build points and control points, arrays are only created again when they are too small
+     *
+     * @param amounts         amounts
+     * @param from            first index of window
+     * @param length          length of window
+     * @param baseline        amount drawn at the bottom of columns
+     * @param range           range from baseline to max amount
+     * @param startX          x position of first point of window
+     * @param pointSpace      width between two points
+     * @param columnTopY      y position of the top of columns
+     * @param maxColumnHeight max column height
+     */
+    public void build(FloatSeries amounts, int from, int length, float baseline, float range, float startX, float pointSpace,
+               int columnTopY, int maxColumnHeight) {
+        mCount = 0;
+        if (length <= 0) {
+            return;
+        }
+
+        // decimate to at most two points per pixel
+        decimate(amounts, from, length, startX, pointSpace);
+
+        // scale points in batch
+        PointMapper.mapX(mIndices, mCount, mFrom, mStartX, mPointSpace, mPointX);
+        PointMapper.mapY(mValues, mCount, baseline, range, columnTopY, maxColumnHeight, mPointY);
+
+        // smooth path
+        computeControlPoints();
+    }
+
+    /**
+     * Get number of times arrays are created again
+     *
+     * @return allocation count
+     */
+    public int getAllocationCount() {
+        return mAllocationCount;
+    }
+
+    /**
+     * Get number of points
+     *
+     * @return number of points
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Find the point nearest to an x position, points are sorted by x so it is a binary search
+     *
+     * @param x x position
+     * @return index of nearest point, or -1 if there is no point
+     */
+    public int findNearest(float x) {
+        if (mCount == 0) {
+            return -1;
+        }
+        // first point which is not left of x
+        int low = 0;
+        int high = mCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mPointX[mid] < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // previous point can be nearer
+        if (low > 0 && x - mPointX[low - 1] <= mPointX[low] - x) {
+            return low - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Get x position of point
+     *
+     * @param i index of point
+     * @return x position
+     */
+    public float getPointX(int i) {
+        return mPointX[i];
+    }
+
+    /**
+     * Get y position of point
+     *
+     * @param i index of point
+     * @return y position
+     */
+    public float getPointY(int i) {
+        return mPointY[i];
+    }
+
+    /**
+     * Get amount of point
+     *
+     * @param i index of point
+     * @return amount
+     */
+    public float getValue(int i) {
+        return mValues[i];
+    }
+
+    /**
+     * Get x position of first control point of segment
+     *
+     * @param i index of segment, it starts at point i
+     * @return x position
+     */
+    public float getFirstControlX(int i) {
+        return mFirstControlX[i];
+    }
+
+    /**
+     * Get y position of first control point of segment
+     *
+     * @param i index of segment, it starts at point i
+     * @return y position
+     */
+    public float getFirstControlY(int i) {
+        return mFirstControlY[i];
+    }
+
+    /**
+     * Get x position of second control point of segment
+     *
+     * @param i index of segment, it starts at point i
+     * @return x position
+     */
+    public float getSecondControlX(int i) {
+        return mSecondControlX[i];
+    }
+
+    /**
+     * Get y position of second control point of segment
+     *
+     * @param i index of segment, it starts at point i
+     * @return y position
+     */
+    public float getSecondControlY(int i) {
+        return mSecondControlY[i];
+    }
+
+    /**
+     * Copy scaled points
+     *
+     * @param outX output x positions, at least count long
+     * @param outY output y positions, at least count long
+     */
+    public void copyPoints(float[] outX, float[] outY) {
+        System.arraycopy(mPointX, 0, outX, 0, mCount);
+        System.arraycopy(mPointY, 0, outY, 0, mCount);
+    }
+
+    /**
+     * Set points interpolated between two point sets of the same count and compute control points again
+     *
+     * @param fromX    start x positions
+     * @param fromY    start y positions
+     * @param toX      end x positions
+     * @param toY      end y positions
+     * @param fraction fraction from start to end
+     */
+    public void setPoints(float[] fromX, float[] fromY, float[] toX, float[] toY, float fraction) {
+        for (int i = 0; i < mCount; i++) {
+            mPointX[i] = fromX[i] + (toX[i] - fromX[i]) * fraction;
+            mPointY[i] = fromY[i] + (toY[i] - fromY[i]) * fraction;
+        }
+        computeControlPoints();
+    }
+
+    /**
+     * Compute control points of each segment from scaled points
+     */
+    private void computeControlPoints() {
+        computeControlPoints(mPointX, mPointY, mCount, mFirstControlX, mFirstControlY, mSecondControlX, mSecondControlY);
+    }
+
+    /**
+     * Compute control points of each segment, first and last point are their own outer neighbors.
+     * A segment only depends on the point before and the point after it, so the newest segments of
+     * a stream can be computed from its last points alone
+     *
+     * @param pointX         x positions
+     * @param pointY         y positions
+     * @param count          number of points
+     * @param firstControlX  output first control x of each segment, at least count - 1 long
+     * @param firstControlY  output first control y of each segment, at least count - 1 long
+     * @param secondControlX output second control x of each segment, at least count - 1 long
+     * @param secondControlY output second control y of each segment, at least count - 1 long
+     */
+    public static void computeControlPoints(float[] pointX, float[] pointY, int count, float[] firstControlX,
+                                            float[] firstControlY, float[] secondControlX, float[] secondControlY) {
+        int last = count - 1;
+        if (last < 1) {
+            return;
+        }
+
+        // neighbors are kept in locals, every point is loaded once
+        float prevX = pointX[0];
+        float prevY = pointY[0];
+        float thisX = prevX;
+        float thisY = prevY;
+        float nextX = pointX[1];
+        float nextY = pointY[1];
+        for (int i = 0; i < last; i++) {
+            int after = i + 2 < last ? i + 2 : last;
+            float afterX = pointX[after];
+            float afterY = pointY[after];
+
+            firstControlX[i] = thisX + GRAPH_SMOOTHNES * (nextX - prevX);
+            firstControlY[i] = thisY + GRAPH_SMOOTHNES * (nextY - prevY);
+            secondControlX[i] = nextX - GRAPH_SMOOTHNES * (afterX - thisX);
+            secondControlY[i] = nextY - GRAPH_SMOOTHNES * (afterY - thisY);
+
+            prevX = thisX;
+            prevY = thisY;
+            thisX = nextX;
+            thisY = nextY;
+            nextX = afterX;
+            nextY = afterY;
+        }
+    }
+
+    /**
+     * Decimate window of amounts into point buffers
+     *
+     * @param amounts    amounts
+     * @param from       first index of window
+     * @param length     length of window
+     * @param startX     x position of first point of window
+     * @param pointSpace width between two points
+     */
+    private void decimate(FloatSeries amounts, int from, int length, float startX, float pointSpace) {
+        int bucketCount = Math.max(1, Math.round((length - 1) * pointSpace));
+        int size = SeriesDecimator.getOutputSize(length, bucketCount);
+        if (mIndices.length < size) {
+            mIndices = new int[size];
+            mValues = new float[size];
+            mPointX = new float[size];
+            mPointY = new float[size];
+            mFirstControlX = new float[size];
+            mFirstControlY = new float[size];
+            mSecondControlX = new float[size];
+            mSecondControlY = new float[size];
+            mAllocationCount++;
+        }
+        mCount = SeriesDecimator.decimate(amounts, from, length, bucketCount, mIndices, mValues);
+        mFrom = from;
+        mPointSpace = pointSpace;
+        mStartX = startX;
+    }
+
+}
@@ -0,0 +1,313 @@
+package com.kevinnguyen.weekchartview.core;
+
+/**
+ * FloatRingBuffer
+ * <p>
+ * Fixed capacity primitive buffer of amounts. Appending to a full buffer drops the oldest amount,
+ * so a streaming chart slides its window without copying arrays.
+ * <p>
+ * Max and min values are kept by {@link SlidingExtremes}. After values are replaced they are
+ * pushed again on first access, so that pass runs on the thread which needs the scale.
+ * <p>
+ * Max and min values of an index range are kept by {@link RangeExtremesTree}, it is only built
+ * on the first range query and then updated for every appended value.
+ */
+public class FloatRingBuffer implements FloatSeries {
+
+    // values, head is the index of the oldest value
+    private float[] mData = new float[0];
+    private int mHead;
+    private int mSize;
+
+    // sequence number of oldest value
+    private long mFirstSeq;
+
+    // max and min values
+    private final SlidingExtremes mExtremes = new SlidingExtremes();
+    private boolean mExtremesDirty;
+
+    // max and min values of ranges, built on first range query
+    private final RangeExtremesTree mRangeTree = new RangeExtremesTree();
+    private boolean mRangeTreeUsed;
+    private boolean mRangeTreeDirty = true;
+
+    /**
+     * Get size
+     *
+     * @return number of values
+     */
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Get capacity
+     *
+     * @return capacity
+     */
+    public int capacity() {
+        return mData.length;
+    }
+
+    /**
+     * Get value
+     *
+     * @param i index from oldest value
+     * @return value
+     */
+    @Override
+    public float get(int i) {
+        return mData[toSlot(i)];
+    }
+
+    /**
+     * Get max value
+     *
+     * @return max value
+     */
+    @Override
+    public float getMax() {
+        rebuildExtremesIfNeeded();
+        return mExtremes.getMax();
+    }
+
+    /**
+     * Get min value
+     *
+     * @return min value
+     */
+    @Override
+    public float getMin() {
+        rebuildExtremesIfNeeded();
+        return mExtremes.getMin();
+    }
+
+    /**
+     * Get max value of index range
+     *
+     * @param from first index from oldest value
+     * @param to   last index from oldest value, inclusive
+     * @return max value
+     */
+    @Override
+    public float getMax(int from, int to) {
+        rebuildRangeTreeIfNeeded();
+        int first = toSlot(from);
+        int last = toSlot(to);
+        if (first <= last) {
+            return mRangeTree.getMax(first, last);
+        }
+        return Math.max(mRangeTree.getMax(first, mData.length - 1), mRangeTree.getMax(0, last));
+    }
+
+    /**
+     * Get min value of index range
+     *
+     * @param from first index from oldest value
+     * @param to   last index from oldest value, inclusive
+     * @return min value
+     */
+    @Override
+    public float getMin(int from, int to) {
+        rebuildRangeTreeIfNeeded();
+        int first = toSlot(from);
+        int last = toSlot(to);
+        if (first <= last) {
+            return mRangeTree.getMin(first, last);
+        }
+        return Math.min(mRangeTree.getMin(first, mData.length - 1), mRangeTree.getMin(0, last));
+    }
+
+    /**
+     * Set capacity, newest values are kept
+     *
+     * @param capacity capacity
+     */
+    public void setCapacity(int capacity) {
+        if (capacity == mData.length) {
+            return;
+        }
+        int size = Math.min(mSize, capacity);
+        float[] data = new float[capacity];
+        for (int i = 0; i < size; i++) {
+            data[i] = get(mSize - size + i);
+        }
+        mData = data;
+        mHead = 0;
+        mSize = size;
+        mExtremesDirty = true;
+        mRangeTreeDirty = true;
+    }
+
+    /**
+     * Remove all values
+     */
+    public void clear() {
+        mHead = 0;
+        mSize = 0;
+        mFirstSeq = 0;
+        // extremes can be sized for an older capacity
+        mExtremes.setCapacity(mData.length);
+        mExtremesDirty = false;
+        mRangeTreeDirty = true;
+    }
+
+    /**
+     * Set values, capacity is increased if needed
+     *
+     * @param values values
+     */
+    public void set(int[] values) {
+        prepare(values.length);
+        for (int i = 0; i < values.length; i++) {
+            mData[i] = values[i];
+        }
+        mExtremesDirty = true;
+    }
+
+    /**
+     * Set values, capacity is increased if needed
+     *
+     * @param values values
+     */
+    public void set(float[] values) {
+        prepare(values.length);
+        System.arraycopy(values, 0, mData, 0, values.length);
+        mExtremesDirty = true;
+    }
+
+    /**
+     * Set values, capacity is increased if needed
+     *
+     * @param values values
+     */
+    public void set(long[] values) {
+        prepare(values.length);
+        for (int i = 0; i < values.length; i++) {
+            mData[i] = values[i];
+        }
+        mExtremesDirty = true;
+    }
+
+    /**
+     * Copy values of other series, capacity is increased if needed
+     *
+     * @param other other series
+     */
+    public void copyFrom(FloatSeries other) {
+        copyFrom(other, 0, other.size());
+    }
+
+    /**
+     * Copy index range of other series, capacity is increased if needed
+     *
+     * @param other other series
+     * @param from  first index from oldest value of other series
+     * @param count number of values
+     */
+    public void copyFrom(FloatSeries other, int from, int count) {
+        prepare(count);
+        if (other instanceof FloatRingBuffer) {
+            FloatRingBuffer buffer = (FloatRingBuffer) other;
+            if (count > 0) {
+                int first = buffer.toSlot(from);
+                int firstPart = Math.min(count, buffer.mData.length - first);
+                System.arraycopy(buffer.mData, first, mData, 0, firstPart);
+                System.arraycopy(buffer.mData, 0, mData, firstPart, count - firstPart);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                mData[i] = other.get(from + i);
+            }
+        }
+        mExtremesDirty = true;
+    }
+
+    /**
+     * Append value, oldest value is dropped if buffer is full
+     *
+     * @param value value
+     */
+    public void add(float value) {
+        if (mData.length == 0) {
+            return;
+        }
+        int index;
+        if (mSize == mData.length) {
+            // drop oldest value
+            if (!mExtremesDirty) {
+                mExtremes.evict(mFirstSeq);
+            }
+            index = mHead;
+            mHead = mHead + 1 == mData.length ? 0 : mHead + 1;
+            mFirstSeq++;
+        } else {
+            index = toSlot(mSize);
+            mSize++;
+        }
+        mData[index] = value;
+        if (!mExtremesDirty) {
+            mExtremes.push(mFirstSeq + mSize - 1, value);
+        }
+        if (mRangeTreeUsed && !mRangeTreeDirty) {
+            mRangeTree.set(index, value);
+        }
+    }
+
+    /**
+     * Prepare buffer for new values
+     *
+     * @param length length of new values
+     */
+    private void prepare(int length) {
+        if (mData.length < length) {
+            mData = new float[length];
+        }
+        mHead = 0;
+        mSize = length;
+        mRangeTreeDirty = true;
+    }
+
+    /**
+     * Get slot of index
+     *
+     * @param i index from oldest value
+     * @return slot in data
+     */
+    private int toSlot(int i) {
+        int index = mHead + i;
+        if (index >= mData.length) {
+            index -= mData.length;
+        }
+        return index;
+    }
+
+    /**
+     * Push all values into extremes again if values were replaced
+     */
+    private void rebuildExtremesIfNeeded() {
+        if (!mExtremesDirty) {
+            return;
+        }
+        mExtremesDirty = false;
+        mExtremes.setCapacity(mData.length);
+        mFirstSeq = 0;
+        for (int i = 0; i < mSize; i++) {
+            mExtremes.push(i, get(i));
+        }
+    }
+
+    /**
+     * Build range tree again if values were replaced
+     */
+    private void rebuildRangeTreeIfNeeded() {
+        mRangeTreeUsed = true;
+        if (!mRangeTreeDirty) {
+            return;
+        }
+        mRangeTreeDirty = false;
+        mRangeTree.build(mData);
+    }
+
+}
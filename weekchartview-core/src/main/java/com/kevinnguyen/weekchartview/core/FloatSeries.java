@@ -0,0 +1,58 @@
+package com.kevinnguyen.weekchartview.core;
+
+/**
+ * FloatSeries
+ * <p>
+ * Read only series of amounts, decimation, geometry and scale only read amounts through it,
+ * so a chart can draw from a heap buffer or from a memory mapped file.
+ */
+public interface FloatSeries {
+
+    /**
+     * Get size
+     *
+     * @return number of values
+     */
+    int size();
+
+    /**
+     * Get value
+     *
+     * @param i index from oldest value
+     * @return value
+     */
+    float get(int i);
+
+    /**
+     * Get max value
+     *
+     * @return max value, 0 if empty
+     */
+    float getMax();
+
+    /**
+     * Get min value
+     *
+     * @return min value, 0 if empty
+     */
+    float getMin();
+
+    /**
+     * Get max value of index range
+     *
+     * @param from first index
+     * @param to   last index, inclusive
+     * @return max value
+     */
+    float getMax(int from, int to);
+
+    /**
+     * Get min value of index range
+     *
+     * @param from first index
+     * @param to   last index, inclusive
+     * @return min value
+     */
+    float getMin(int from, int to);
+
+}
@@ -0,0 +1,177 @@
+package com.kevinnguyen.weekchartview.core;
+
+import java.nio.FloatBuffer;
+
+/**
+ * MappedFloatSeries
+ * <p>
+ * Series read directly from buffers of a memory mapped {@link SeriesFile}, no value is copied to the heap.
+ * Max and min values of the whole series, of every block and of a segment tree over the blocks are
+ * stored in the file, so a range query only reads the values of the partial blocks at both ends and
+ * O(log blocks) nodes between them.
+ */
+class MappedFloatSeries implements FloatSeries {
+
+    // values and extremes of blocks
+    private final FloatBuffer mValues;
+    private final FloatBuffer mBlockMax;
+    private final FloatBuffer mBlockMin;
+    private final FloatBuffer mNodeMax;
+    private final FloatBuffer mNodeMin;
+    private final int mBlockSize;
+    private final int mBlockCount;
+    private final int mSize;
+
+    // extremes of whole series
+    private final float mMax;
+    private final float mMin;
+
+    /**
+     * Constructor
+     *
+     * @param values    values
+     * @param blockMax  max value of every block
+     * @param blockMin  min value of every block
+     * @param nodeMax   max value of every inner node of segment tree over blocks
+     * @param nodeMin   min value of every inner node of segment tree over blocks
+     * @param blockSize number of values per block
+     * @param max       max value of series
+     * @param min       min value of series
+     */
+    MappedFloatSeries(FloatBuffer values, FloatBuffer blockMax, FloatBuffer blockMin, FloatBuffer nodeMax, FloatBuffer nodeMin,
+                      int blockSize, float max, float min) {
+        mValues = values;
+        mBlockMax = blockMax;
+        mBlockMin = blockMin;
+        mNodeMax = nodeMax;
+        mNodeMin = nodeMin;
+        mBlockSize = blockSize;
+        mBlockCount = blockMax.limit();
+        mSize = values.limit();
+        mMax = max;
+        mMin = min;
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    public float get(int i) {
+        return mValues.get(i);
+    }
+
+    @Override
+    public float getMax() {
+        return mMax;
+    }
+
+    @Override
+    public float getMin() {
+        return mMin;
+    }
+
+    @Override
+    public float getMax(int from, int to) {
+        float max = Float.NEGATIVE_INFINITY;
+        int firstBlock = from / mBlockSize;
+        int lastBlock = to / mBlockSize;
+        if (firstBlock == lastBlock) {
+            for (int i = from; i <= to; i++) {
+                max = Math.max(max, mValues.get(i));
+            }
+            return max;
+        }
+
+        // partial blocks at both ends, whole blocks between them
+        for (int i = from, end = (firstBlock + 1) * mBlockSize; i < end; i++) {
+            max = Math.max(max, mValues.get(i));
+        }
+        if (firstBlock + 1 < lastBlock) {
+            max = Math.max(max, getBlockMax(firstBlock + 1, lastBlock - 1));
+        }
+        for (int i = lastBlock * mBlockSize; i <= to; i++) {
+            max = Math.max(max, mValues.get(i));
+        }
+        return max;
+    }
+
+    @Override
+    public float getMin(int from, int to) {
+        float min = Float.POSITIVE_INFINITY;
+        int firstBlock = from / mBlockSize;
+        int lastBlock = to / mBlockSize;
+        if (firstBlock == lastBlock) {
+            for (int i = from; i <= to; i++) {
+                min = Math.min(min, mValues.get(i));
+            }
+            return min;
+        }
+
+        // partial blocks at both ends, whole blocks between them
+        for (int i = from, end = (firstBlock + 1) * mBlockSize; i < end; i++) {
+            min = Math.min(min, mValues.get(i));
+        }
+        if (firstBlock + 1 < lastBlock) {
+            min = Math.min(min, getBlockMin(firstBlock + 1, lastBlock - 1));
+        }
+        for (int i = lastBlock * mBlockSize; i <= to; i++) {
+            min = Math.min(min, mValues.get(i));
+        }
+        return min;
+    }
+
+    /**
+     * Get max value of block range from segment tree
+     *
+     * @param from first block
+     * @param to   last block, inclusive
+     * @return max value
+     */
+    private float getBlockMax(int from, int to) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (int left = from + mBlockCount, right = to + mBlockCount + 1; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                max = Math.max(max, getNode(mNodeMax, mBlockMax, left++));
+            }
+            if ((right & 1) == 1) {
+                max = Math.max(max, getNode(mNodeMax, mBlockMax, --right));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Get min value of block range from segment tree
+     *
+     * @param from first block
+     * @param to   last block, inclusive
+     * @return min value
+     */
+    private float getBlockMin(int from, int to) {
+        float min = Float.POSITIVE_INFINITY;
+        for (int left = from + mBlockCount, right = to + mBlockCount + 1; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                min = Math.min(min, getNode(mNodeMin, mBlockMin, left++));
+            }
+            if ((right & 1) == 1) {
+                min = Math.min(min, getNode(mNodeMin, mBlockMin, --right));
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Get value of node, nodes from block count on are the blocks
+     *
+     * @param nodes  inner nodes
+     * @param blocks blocks
+     * @param i      node
+     * @return value
+     */
+    private float getNode(FloatBuffer nodes, FloatBuffer blocks, int i) {
+        return i >= mBlockCount ? blocks.get(i - mBlockCount) : nodes.get(i);
+    }
+
+}
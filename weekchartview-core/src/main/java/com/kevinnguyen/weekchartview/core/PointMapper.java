@@ -0,0 +1,52 @@
+package com.kevinnguyen.weekchartview.core;
+
+/**
+ * PointMapper
+ * <p>
+ * Maps whole series to float x and y positions in tight loops. Constants are hoisted and the
+ * division by range is a multiplication by its reciprocal, so every point is one multiply-add
+ * and the loops can be unrolled or vectorized by the JIT. Positions keep sub-pixel precision.
+ */
+public final class PointMapper {
+
+    private PointMapper() {
+    }
+
+    /**
+     * Map indices to x positions
+     *
+     * @param indices    indices of points
+     * @param count      number of points
+     * @param from       index drawn at startX
+     * @param startX     x position of index from
+     * @param pointSpace width between two indices
+     * @param outX       output x positions, at least count long
+     */
+    public static void mapX(int[] indices, int count, int from, float startX, float pointSpace, float[] outX) {
+        float offset = startX - from * pointSpace;
+        for (int i = 0; i < count; i++) {
+            outX[i] = indices[i] * pointSpace + offset;
+        }
+    }
+
+    /**
+     * Map values to y positions, baseline is drawn at the bottom of columns and baseline plus range at the top
+     *
+     * @param values          values
+     * @param count           number of values
+     * @param baseline        value drawn at the bottom of columns
+     * @param range           range from baseline to max value, no column is drawn if it is not positive
+     * @param columnTopY      y position of the top of columns
+     * @param maxColumnHeight max column height
+     * @param outY            output y positions, at least count long
+     */
+    public static void mapY(float[] values, int count, float baseline, float range, int columnTopY, int maxColumnHeight,
+                            float[] outY) {
+        float scale = range > 0 ? maxColumnHeight / range : 0;
+        float bottom = columnTopY + maxColumnHeight + baseline * scale;
+        for (int i = 0; i < count; i++) {
+            outY[i] = bottom - values[i] * scale;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.kevinnguyen.weekchartview.core;
+
+/**
+ * RangeExtremesTree
+ * <p>
+ * Segment tree of max and min values over the slots of a fixed capacity array.
+ * Building is O(n), changing one slot and querying any slot range are O(log n),
+ * so the scale of a visible window is found without scanning the window.
+ */
+class RangeExtremesTree {
+
+    // tree nodes, leaves start at capacity
+    private float[] mMax = new float[0];
+    private float[] mMin = new float[0];
+    private int mCapacity;
+
+    /**
+     * Build tree from all slots of data
+     *
+     * @param data data, its length is the capacity of the tree
+     */
+    void build(float[] data) {
+        int capacity = data.length;
+        if (capacity != mCapacity) {
+            mMax = new float[2 * capacity];
+            mMin = new float[2 * capacity];
+            mCapacity = capacity;
+        }
+        System.arraycopy(data, 0, mMax, capacity, capacity);
+        System.arraycopy(data, 0, mMin, capacity, capacity);
+        for (int i = capacity - 1; i > 0; i--) {
+            mMax[i] = Math.max(mMax[2 * i], mMax[2 * i + 1]);
+            mMin[i] = Math.min(mMin[2 * i], mMin[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Set value of slot
+     *
+     * @param slot  slot
+     * @param value value
+     */
+    void set(int slot, float value) {
+        int i = slot + mCapacity;
+        mMax[i] = value;
+        mMin[i] = value;
+        for (i >>= 1; i > 0; i >>= 1) {
+            mMax[i] = Math.max(mMax[2 * i], mMax[2 * i + 1]);
+            mMin[i] = Math.min(mMin[2 * i], mMin[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Get max value of slot range
+     *
+     * @param from first slot
+     * @param to   last slot, inclusive
+     * @return max value
+     */
+    float getMax(int from, int to) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (int left = from + mCapacity, right = to + mCapacity + 1; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                max = Math.max(max, mMax[left++]);
+            }
+            if ((right & 1) == 1) {
+                max = Math.max(max, mMax[--right]);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Get min value of slot range
+     *
+     * @param from first slot
+     * @param to   last slot, inclusive
+     * @return min value
+     */
+    float getMin(int from, int to) {
+        float min = Float.POSITIVE_INFINITY;
+        for (int left = from + mCapacity, right = to + mCapacity + 1; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                min = Math.min(min, mMin[left++]);
+            }
+            if ((right & 1) == 1) {
+                min = Math.min(min, mMin[--right]);
+            }
+        }
+        return min;
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.kevinnguyen.weekchartview.core;
+
+/**
+ * SeriesDecimator
+ * <p>
+ * Reduces a long series with a min/max bucket reducer, every bucket keeps its lowest and
+ * highest point in index order, so peaks are still visible after decimation.
+ */
+public final class SeriesDecimator {
+
+    // max points kept per bucket
+    public static final int POINTS_PER_BUCKET = 2;
+
+    private SeriesDecimator() {
+    }
+
+    /**
+     * Get output size needed for decimation
+     *
+     * @param length      length of series
+     * @param bucketCount bucket count
+     * @return max output size
+     */
+    public static int getOutputSize(int length, int bucketCount) {
+        return Math.min(length, POINTS_PER_BUCKET * Math.max(1, bucketCount));
+    }
+
+    /**
+     * Decimate series
+     *
+     * @param values      values
+     * @param bucketCount bucket count, usually the width of plot in pixels
+     * @param outIndices  output indices of kept points
+     * @param outValues   output values of kept points
+     * @return number of kept points
+     */
+    public static int decimate(FloatSeries values, int bucketCount, int[] outIndices, float[] outValues) {
+        return decimate(values, 0, values.size(), bucketCount, outIndices, outValues);
+    }
+
+    /**
+     * Decimate index range of series
+     *
+     * @param values      values
+     * @param from        first index of range
+     * @param length      length of range
+     * @param bucketCount bucket count, usually the width of range in pixels
+     * @param outIndices  output indices of kept points
+     * @param outValues   output values of kept points
+     * @return number of kept points
+     */
+    public static int decimate(FloatSeries values, int from, int length, int bucketCount, int[] outIndices, float[] outValues) {
+        bucketCount = Math.max(1, bucketCount);
+
+        // small series, keep all points
+        if (length <= POINTS_PER_BUCKET * bucketCount) {
+            for (int i = 0; i < length; i++) {
+                outIndices[i] = from + i;
+                outValues[i] = values.get(from + i);
+            }
+            return length;
+        }
+
+        int count = 0;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            int start = from + (int) ((long) bucket * length / bucketCount);
+            int end = from + (int) ((long) (bucket + 1) * length / bucketCount);
+
+            // find min and max of bucket
+            int minIndex = start;
+            int maxIndex = start;
+            float min = values.get(start);
+            float max = min;
+            for (int i = start + 1; i < end; i++) {
+                float value = values.get(i);
+                if (value < min) {
+                    min = value;
+                    minIndex = i;
+                } else if (value > max) {
+                    max = value;
+                    maxIndex = i;
+                }
+            }
+
+            // keep in index order
+            if (minIndex == maxIndex) {
+                outIndices[count] = minIndex;
+                outValues[count] = min;
+                count++;
+            } else if (minIndex < maxIndex) {
+                outIndices[count] = minIndex;
+                outValues[count] = min;
+                outIndices[count + 1] = maxIndex;
+                outValues[count + 1] = max;
+                count += 2;
+            } else {
+                outIndices[count] = maxIndex;
+                outValues[count] = max;
+                outIndices[count + 1] = minIndex;
+                outValues[count + 1] = min;
+                count += 2;
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,406 @@
+package com.kevinnguyen.weekchartview.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * SeriesFile
+ * <p>
+ * Compact binary columnar file of a series, read through memory mapped buffers so loading does not
+ * depend on the file size and no value is copied to the heap. The values can be set to a chart directly.
+ * <p>
+ * Layout, all little endian:
+ * <pre>
+ * header       magic, version, count, block size (int), max, min (float), 8 reserved bytes
+ * timestamps   long[count]
+ * values       float[count]
+ * block max    float[blocks], max value of every block of values
+ * block min    float[blocks], min value of every block of values
+ * node max     float[blocks], max value of every inner node of a segment tree over the blocks
+ * node min     float[blocks], min value of every inner node of a segment tree over the blocks
+ * </pre>
+ * Node 1 is the root, children of node i are 2i and 2i + 1, nodes from blocks on are the blocks
+ * themselves and node 0 is not used. So a range query reads the partial blocks at both ends and
+ * O(log blocks) nodes, whatever the file size.
+ * Mappings stay valid after the file is closed, they are released when the buffers are collected.
+ */
+public final class SeriesFile implements Closeable {
+
+    // values per block of stored extremes
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    // header
+    private static final int MAGIC = 0x57435346;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+
+    private final RandomAccessFile mFile;
+    private final int mCount;
+    private final LongBuffer mTimestamps;
+    private final MappedFloatSeries mValues;
+
+    /**
+     * Constructor
+     *
+     * @param file       opened file
+     * @param count      count
+     * @param timestamps timestamps
+     * @param values     values
+     */
+    private SeriesFile(RandomAccessFile file, int count, LongBuffer timestamps, MappedFloatSeries values) {
+        mFile = file;
+        mCount = count;
+        mTimestamps = timestamps;
+        mValues = values;
+    }
+
+    /**
+     * Open file and map its columns
+     *
+     * @param file file
+     * @return series file
+     * @throws IOException if file can not be read or is not a series file
+     */
+    public static SeriesFile open(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("not a series file: " + file);
+            }
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("not a series file: " + file);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("unsupported series file version " + header.getInt(4));
+            }
+            int count = header.getInt(8);
+            int blockSize = header.getInt(12);
+            if (count < 0 || blockSize <= 0 || channel.size() < getFileSize(count, blockSize)) {
+                throw new IOException("broken series file: " + file);
+            }
+            float max = header.getFloat(16);
+            float min = header.getFloat(20);
+
+            // map every column by itself, so no mapping is larger than its column
+            int blockCount = getBlockCount(count, blockSize);
+            long position = HEADER_SIZE;
+            LongBuffer timestamps = map(channel, FileChannel.MapMode.READ_ONLY, position, 8L * count).asLongBuffer();
+            position += 8L * count;
+            FloatBuffer values = map(channel, FileChannel.MapMode.READ_ONLY, position, 4L * count).asFloatBuffer();
+            position += 4L * count;
+            FloatBuffer blockMax = map(channel, FileChannel.MapMode.READ_ONLY, position, 4L * blockCount).asFloatBuffer();
+            position += 4L * blockCount;
+            FloatBuffer blockMin = map(channel, FileChannel.MapMode.READ_ONLY, position, 4L * blockCount).asFloatBuffer();
+            position += 4L * blockCount;
+            ByteBuffer nodes = map(channel, FileChannel.MapMode.READ_ONLY, position, 8L * blockCount);
+
+            return new SeriesFile(randomAccessFile, count, timestamps,
+                    new MappedFloatSeries(values, blockMax, blockMin, getColumn(nodes, 0, blockCount),
+                            getColumn(nodes, 1, blockCount), blockSize, max, min));
+        } catch (IOException | RuntimeException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Write series to file
+     *
+     * @param file       file
+     * @param timestamps timestamps
+     * @param values     values, same length as timestamps
+     * @throws IOException if file can not be written
+     */
+    public static void write(File file, long[] timestamps, float[] values) throws IOException {
+        Writer writer = new Writer(file, values.length);
+        try {
+            for (int i = 0; i < values.length; i++) {
+                writer.add(timestamps[i], values[i]);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Get count
+     *
+     * @return number of values
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Get timestamp
+     *
+     * @param i index
+     * @return timestamp
+     */
+    public long getTimestamp(int i) {
+        return mTimestamps.get(i);
+    }
+
+    /**
+     * Get timestamps
+     *
+     * @return read only buffer of timestamps
+     */
+    public LongBuffer getTimestamps() {
+        return mTimestamps.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get values, they can be set to a chart and are read from the mapped file
+     *
+     * @return values
+     */
+    public FloatSeries getValues() {
+        return mValues;
+    }
+
+    /**
+     * Close file
+     *
+     * @throws IOException if file can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        mFile.close();
+    }
+
+    /**
+     * Map region of file in little endian order
+     *
+     * @param channel  channel
+     * @param mode     mode
+     * @param position position
+     * @param size     size
+     * @return buffer
+     * @throws IOException if region can not be mapped
+     */
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Get number of blocks
+     *
+     * @param count     count
+     * @param blockSize block size
+     * @return block count
+     */
+    private static int getBlockCount(int count, int blockSize) {
+        return (count + blockSize - 1) / blockSize;
+    }
+
+    /**
+     * Get file size
+     *
+     * @param count     count
+     * @param blockSize block size
+     * @return file size in bytes
+     */
+    private static long getFileSize(int count, int blockSize) {
+        return HEADER_SIZE + 12L * count + 16L * getBlockCount(count, blockSize);
+    }
+
+    /**
+     * Get float column of mapped bytes which hold columns of the same length one after another
+     *
+     * @param bytes  bytes
+     * @param index  index of column
+     * @param length number of floats per column
+     * @return column
+     */
+    private static FloatBuffer getColumn(ByteBuffer bytes, int index, int length) {
+        ByteBuffer column = bytes.duplicate();
+        column.position(4 * index * length);
+        column.limit(4 * (index + 1) * length);
+        return column.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+    }
+
+    /**
+     * Writer, values are written into the mapped file one by one so any number of values can be
+     * written without holding them in the heap
+     */
+    public static final class Writer implements Closeable {
+
+        private final RandomAccessFile mFile;
+        private final int mCount;
+        private final int mBlockSize;
+
+        // mapped columns
+        private final MappedByteBuffer mHeader;
+        private final MappedByteBuffer mTimestampBytes;
+        private final MappedByteBuffer mValueBytes;
+        private final MappedByteBuffer mBlockBytes;
+        private final LongBuffer mTimestamps;
+        private final FloatBuffer mValues;
+        private final FloatBuffer mBlockMax;
+        private final FloatBuffer mBlockMin;
+        private final FloatBuffer mNodeMax;
+        private final FloatBuffer mNodeMin;
+        private final int mBlockCount;
+
+        // written values and extremes
+        private int mWritten;
+        private float mMax;
+        private float mMin;
+        private float mCurrentBlockMax;
+        private float mCurrentBlockMin;
+
+        /**
+         * Constructor
+         *
+         * @param file  file, it is replaced
+         * @param count number of values which will be written
+         * @throws IOException if file can not be created
+         */
+        public Writer(File file, int count) throws IOException {
+            this(file, count, DEFAULT_BLOCK_SIZE);
+        }
+
+        /**
+         * Constructor
+         *
+         * @param file      file, it is replaced
+         * @param count     number of values which will be written
+         * @param blockSize number of values per block of stored extremes
+         * @throws IOException if file can not be created
+         */
+        public Writer(File file, int count, int blockSize) throws IOException {
+            if (count < 0 || blockSize <= 0) {
+                throw new IllegalArgumentException("count must not be negative and block size must be positive");
+            }
+            mCount = count;
+            mBlockSize = blockSize;
+            mFile = new RandomAccessFile(file, "rw");
+            try {
+                // drop content of a replaced file, its header would stay valid until close
+                mFile.setLength(0);
+                mFile.setLength(getFileSize(count, blockSize));
+                FileChannel channel = mFile.getChannel();
+                int blockCount = getBlockCount(count, blockSize);
+                mBlockCount = blockCount;
+                long position = 0;
+                mHeader = map(channel, FileChannel.MapMode.READ_WRITE, position, HEADER_SIZE);
+                // extended content is not defined on every platform, magic is only written by close
+                mHeader.putInt(0, 0);
+                position += HEADER_SIZE;
+                mTimestampBytes = map(channel, FileChannel.MapMode.READ_WRITE, position, 8L * count);
+                position += 8L * count;
+                mValueBytes = map(channel, FileChannel.MapMode.READ_WRITE, position, 4L * count);
+                position += 4L * count;
+                mBlockBytes = map(channel, FileChannel.MapMode.READ_WRITE, position, 16L * blockCount);
+                mTimestamps = mTimestampBytes.asLongBuffer();
+                mValues = mValueBytes.asFloatBuffer();
+                mBlockMax = getColumn(mBlockBytes, 0, blockCount);
+                mBlockMin = getColumn(mBlockBytes, 1, blockCount);
+                mNodeMax = getColumn(mBlockBytes, 2, blockCount);
+                mNodeMin = getColumn(mBlockBytes, 3, blockCount);
+            } catch (IOException | RuntimeException e) {
+                mFile.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Add value
+         *
+         * @param timestamp timestamp
+         * @param value     value
+         */
+        public void add(long timestamp, float value) {
+            if (mWritten == mCount) {
+                throw new IllegalStateException("all " + mCount + " values are written");
+            }
+            int i = mWritten++;
+            mTimestamps.put(i, timestamp);
+            mValues.put(i, value);
+
+            // extremes of series and block
+            if (i == 0 || value > mMax) {
+                mMax = value;
+            }
+            if (i == 0 || value < mMin) {
+                mMin = value;
+            }
+            if (i % mBlockSize == 0 || value > mCurrentBlockMax) {
+                mCurrentBlockMax = value;
+            }
+            if (i % mBlockSize == 0 || value < mCurrentBlockMin) {
+                mCurrentBlockMin = value;
+            }
+            if (mWritten % mBlockSize == 0 || mWritten == mCount) {
+                mBlockMax.put(i / mBlockSize, mCurrentBlockMax);
+                mBlockMin.put(i / mBlockSize, mCurrentBlockMin);
+            }
+        }
+
+        /**
+         * Write header and close file, the header is written last so a partly written file is never valid
+         *
+         * @throws IOException if not all values are written or file can not be written
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                if (mWritten != mCount) {
+                    throw new IOException("only " + mWritten + " of " + mCount + " values are written");
+                }
+                buildNodes();
+                mTimestampBytes.force();
+                mValueBytes.force();
+                mBlockBytes.force();
+                mHeader.putInt(0, MAGIC);
+                mHeader.putInt(4, VERSION);
+                mHeader.putInt(8, mCount);
+                mHeader.putInt(12, mBlockSize);
+                mHeader.putFloat(16, mMax);
+                mHeader.putFloat(20, mMin);
+                mHeader.force();
+            } finally {
+                mFile.close();
+            }
+        }
+
+        /**
+         * Build inner nodes of segment tree from the last one up to the root
+         */
+        private void buildNodes() {
+            for (int i = mBlockCount - 1; i > 0; i--) {
+                int left = 2 * i;
+                int right = left + 1;
+                mNodeMax.put(i, Math.max(getNode(mNodeMax, mBlockMax, left), getNode(mNodeMax, mBlockMax, right)));
+                mNodeMin.put(i, Math.min(getNode(mNodeMin, mBlockMin, left), getNode(mNodeMin, mBlockMin, right)));
+            }
+        }
+
+        /**
+         * Get value of node
+         *
+         * @param nodes  inner nodes
+         * @param blocks blocks
+         * @param i      node
+         * @return value
+         */
+        private float getNode(FloatBuffer nodes, FloatBuffer blocks, int i) {
+            return i >= mBlockCount ? blocks.get(i - mBlockCount) : nodes.get(i);
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.kevinnguyen.weekchartview.core;
+
+/**
+ * SlidingExtremes
+ * <p>
+ * Max and min of a sliding window kept by two monotonic deques. Every value is pushed and
+ * removed at most once from each deque, so push and evict are amortized O(1).
+ */
+class SlidingExtremes {
+
+    // max deque, values are decreasing from head to tail
+    private long[] mMaxSeqs = new long[0];
+    private float[] mMaxValues = new float[0];
+    private int mMaxHead;
+    private int mMaxSize;
+
+    // min deque, values are increasing from head to tail
+    private long[] mMinSeqs = new long[0];
+    private float[] mMinValues = new float[0];
+    private int mMinHead;
+    private int mMinSize;
+
+    /**
+     * Set max window size, all values are removed
+     *
+     * @param capacity max window size
+     */
+    void setCapacity(int capacity) {
+        if (mMaxSeqs.length != capacity) {
+            mMaxSeqs = new long[capacity];
+            mMaxValues = new float[capacity];
+            mMinSeqs = new long[capacity];
+            mMinValues = new float[capacity];
+        }
+        clear();
+    }
+
+    /**
+     * Remove all values
+     */
+    void clear() {
+        mMaxHead = 0;
+        mMaxSize = 0;
+        mMinHead = 0;
+        mMinSize = 0;
+    }
+
+    /**
+     * Is empty
+     *
+     * @return true if there is no value
+     */
+    boolean isEmpty() {
+        return mMaxSize == 0;
+    }
+
+    /**
+     * Get max value of window
+     *
+     * @return max value
+     */
+    float getMax() {
+        return mMaxSize > 0 ? mMaxValues[mMaxHead] : 0;
+    }
+
+    /**
+     * Get min value of window
+     *
+     * @return min value
+     */
+    float getMin() {
+        return mMinSize > 0 ? mMinValues[mMinHead] : 0;
+    }
+
+    /**
+     * Push newest value
+     *
+     * @param seq   sequence number of value
+     * @param value value
+     */
+    void push(long seq, float value) {
+        int capacity = mMaxSeqs.length;
+
+        // drop smaller values from tail of max deque
+        while (mMaxSize > 0 && mMaxValues[index(mMaxHead + mMaxSize - 1, capacity)] <= value) {
+            mMaxSize--;
+        }
+        int maxTail = index(mMaxHead + mMaxSize, capacity);
+        mMaxSeqs[maxTail] = seq;
+        mMaxValues[maxTail] = value;
+        mMaxSize++;
+
+        // drop bigger values from tail of min deque
+        while (mMinSize > 0 && mMinValues[index(mMinHead + mMinSize - 1, capacity)] >= value) {
+            mMinSize--;
+        }
+        int minTail = index(mMinHead + mMinSize, capacity);
+        mMinSeqs[minTail] = seq;
+        mMinValues[minTail] = value;
+        mMinSize++;
+    }
+
+    /**
+     * Evict oldest value of window
+     *
+     * @param seq sequence number of evicted value
+     */
+    void evict(long seq) {
+        int capacity = mMaxSeqs.length;
+        if (mMaxSize > 0 && mMaxSeqs[mMaxHead] == seq) {
+            mMaxHead = index(mMaxHead + 1, capacity);
+            mMaxSize--;
+        }
+        if (mMinSize > 0 && mMinSeqs[mMinHead] == seq) {
+            mMinHead = index(mMinHead + 1, capacity);
+            mMinSize--;
+        }
+    }
+
+    /**
+     * Wrap index into deque arrays
+     *
+     * @param i        i
+     * @param capacity capacity
+     * @return index
+     */
+    private static int index(int i, int capacity) {
+        return i >= capacity ? i - capacity : i;
+    }
+
+}
@@ -0,0 +1,225 @@
+package com.kevinnguyen.weekchartview.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * BucketAggregatorTest
+ * <p>
+ * Buckets of parallel and incremental batches are compared with a plain loop over all events.
+ * Values are whole numbers, so sums are exact in any order and buckets must be equal.
+ */
+public class BucketAggregatorTest {
+
+    // events per task of the aggregator
+    private static final int TASK_SIZE = 1 << 16;
+
+    private static final long START_TIME = 1000;
+    private static final long BUCKET_DURATION = BucketAggregator.HOUR_MILLIS;
+    private static final int BUCKET_COUNT = 7;
+
+    private static final int[] AGGREGATIONS = {
+            BucketAggregator.SUM, BucketAggregator.AVERAGE, BucketAggregator.MAX, BucketAggregator.COUNT
+    };
+
+    @Test
+    public void parallelBatchMatchesLoop() {
+        Random random = new Random(1);
+        int count = 3 * TASK_SIZE + 17;
+        long[] timestamps = randomTimestamps(count, random);
+        float[] values = randomValues(count, random);
+
+        BucketAggregator aggregator = newAggregator();
+        aggregator.add(timestamps, values);
+        assertBuckets(aggregator, timestamps, values, count);
+    }
+
+    @Test
+    public void batchesAroundTaskSizeMatchLoop() {
+        Random random = new Random(2);
+        int[] lengths = {TASK_SIZE - 1, TASK_SIZE, TASK_SIZE + 1, 2 * TASK_SIZE, 2 * TASK_SIZE + 1};
+        for (int length : lengths) {
+            // range starts inside the arrays, events before it must not be added
+            int offset = 5;
+            long[] timestamps = randomTimestamps(offset + length, random);
+            float[] values = randomValues(offset + length, random);
+
+            BucketAggregator aggregator = newAggregator();
+            aggregator.add(timestamps, values, offset, length);
+            assertBuckets(aggregator, Arrays.copyOfRange(timestamps, offset, offset + length),
+                    Arrays.copyOfRange(values, offset, offset + length), length);
+        }
+    }
+
+    @Test
+    public void incrementalAddAfterParallelBatchMatchesLoop() {
+        Random random = new Random(3);
+        int parallel = 2 * TASK_SIZE + 3;
+        int small = 1000;
+        int single = 500;
+        int count = parallel + small + single + parallel;
+        long[] timestamps = randomTimestamps(count, random);
+        float[] values = randomValues(count, random);
+
+        BucketAggregator aggregator = newAggregator();
+        aggregator.add(timestamps, values, 0, parallel);
+        aggregator.add(timestamps, values, parallel, small);
+        for (int i = parallel + small; i < parallel + small + single; i++) {
+            aggregator.add(timestamps[i], values[i]);
+        }
+        aggregator.add(timestamps, values, parallel + small + single, parallel);
+        assertBuckets(aggregator, timestamps, values, count);
+    }
+
+    @Test
+    public void negativeMaxMatchesLoopWhenTasksHaveEmptyBuckets() {
+        Random random = new Random(5);
+        int count = 4 * TASK_SIZE;
+        long[] timestamps = randomTimestamps(count, random);
+        // sorted events leave most buckets of each task empty, empty buckets must not merge max of 0
+        Arrays.sort(timestamps);
+        float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = -1 - random.nextInt(1000);
+        }
+
+        BucketAggregator aggregator = newAggregator();
+        aggregator.add(timestamps, values);
+        assertBuckets(aggregator, timestamps, values, count);
+    }
+
+    @Test
+    public void eventsOutsideOfBucketsAreIgnored() {
+        long end = START_TIME + BUCKET_COUNT * BUCKET_DURATION;
+        long[] timestamps = {Long.MIN_VALUE, START_TIME - 1, START_TIME, end - 1, end, Long.MAX_VALUE};
+        float[] values = {100, 100, 1, 2, 100, 100};
+
+        // single events, a small batch and a parallel batch of the same events
+        BucketAggregator single = newAggregator();
+        for (int i = 0; i < timestamps.length; i++) {
+            single.add(timestamps[i], values[i]);
+        }
+        BucketAggregator batch = newAggregator();
+        batch.add(timestamps, values);
+        int count = 2 * TASK_SIZE + 1;
+        long[] manyTimestamps = new long[count];
+        float[] manyValues = new float[count];
+        for (int i = 0; i < count; i++) {
+            manyTimestamps[i] = timestamps[i % timestamps.length];
+            manyValues[i] = values[i % values.length];
+        }
+        BucketAggregator parallel = newAggregator();
+        parallel.add(manyTimestamps, manyValues);
+
+        float[] sums = {1, 0, 0, 0, 0, 0, 2};
+        assertArrayEquals(sums, single.getBuckets(BucketAggregator.SUM), 0);
+        assertArrayEquals(sums, batch.getBuckets(BucketAggregator.SUM), 0);
+        assertBuckets(parallel, manyTimestamps, manyValues, count);
+    }
+
+    @Test
+    public void clearRemovesAllEvents() {
+        Random random = new Random(4);
+        int count = 2 * TASK_SIZE + 1;
+        BucketAggregator aggregator = newAggregator();
+        aggregator.add(randomTimestamps(count, random), randomValues(count, random));
+        aggregator.clear();
+        for (int aggregation : AGGREGATIONS) {
+            assertArrayEquals(new float[BUCKET_COUNT], aggregator.getBuckets(aggregation), 0);
+        }
+
+        long[] timestamps = randomTimestamps(count, random);
+        float[] values = randomValues(count, random);
+        aggregator.add(timestamps, values);
+        assertBuckets(aggregator, timestamps, values, count);
+    }
+
+    /**
+     * Create aggregator of test buckets
+     *
+     * @return aggregator
+     */
+    private static BucketAggregator newAggregator() {
+        return new BucketAggregator(START_TIME, BUCKET_DURATION, BUCKET_COUNT);
+    }
+
+    /**
+     * Assert all aggregations against a plain loop over events
+     *
+     * @param aggregator aggregator
+     * @param timestamps timestamps of all added events
+     * @param values     values of all added events
+     * @param count      number of events
+     */
+    private static void assertBuckets(BucketAggregator aggregator, long[] timestamps, float[] values, int count) {
+        double[] sums = new double[BUCKET_COUNT];
+        long[] counts = new long[BUCKET_COUNT];
+        float[] max = new float[BUCKET_COUNT];
+        for (int i = 0; i < count; i++) {
+            if (timestamps[i] < START_TIME) {
+                continue;
+            }
+            long bucket = (timestamps[i] - START_TIME) / BUCKET_DURATION;
+            if (bucket >= BUCKET_COUNT) {
+                continue;
+            }
+            int b = (int) bucket;
+            if (counts[b] == 0 || values[i] > max[b]) {
+                max[b] = values[i];
+            }
+            sums[b] += values[i];
+            counts[b]++;
+        }
+
+        float[] expectedSums = new float[BUCKET_COUNT];
+        float[] expectedAverages = new float[BUCKET_COUNT];
+        float[] expectedCounts = new float[BUCKET_COUNT];
+        for (int b = 0; b < BUCKET_COUNT; b++) {
+            expectedSums[b] = (float) sums[b];
+            expectedAverages[b] = counts[b] == 0 ? 0 : (float) (sums[b] / counts[b]);
+            expectedCounts[b] = counts[b];
+        }
+        assertArrayEquals(expectedSums, aggregator.getBuckets(BucketAggregator.SUM), 0);
+        assertArrayEquals(expectedAverages, aggregator.getBuckets(BucketAggregator.AVERAGE), 0);
+        assertArrayEquals(max, aggregator.getBuckets(BucketAggregator.MAX), 0);
+        assertArrayEquals(expectedCounts, aggregator.getBuckets(BucketAggregator.COUNT), 0);
+        assertEquals(BUCKET_COUNT, aggregator.getBucketCount());
+    }
+
+    /**
+     * Random timestamps, some of them are before or after all buckets
+     *
+     * @param count  count
+     * @param random random
+     * @return timestamps
+     */
+    private static long[] randomTimestamps(int count, Random random) {
+        long range = (BUCKET_COUNT + 2) * BUCKET_DURATION;
+        long[] timestamps = new long[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = START_TIME - BUCKET_DURATION + (long) (random.nextDouble() * range);
+        }
+        return timestamps;
+    }
+
+    /**
+     * Random whole values, negative ones too so max of a bucket can be below 0
+     *
+     * @param count  count
+     * @param random random
+     * @return values
+     */
+    private static float[] randomValues(int count, Random random) {
+        float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextInt(2001) - 1000;
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.kevinnguyen.weekchartview.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * FloatRingBufferTest
+ * <p>
+ * Extremes of the ring buffer are compared with a scan of its values after every change.
+ */
+public class FloatRingBufferTest {
+
+    @Test
+    public void clearAfterSetCapacity() {
+        FloatRingBuffer buffer = new FloatRingBuffer();
+        buffer.setCapacity(5);
+        buffer.clear();
+        buffer.add(1);
+        assertExtremes(buffer);
+    }
+
+    @Test
+    public void clearAfterGrowingCapacity() {
+        FloatRingBuffer buffer = new FloatRingBuffer();
+        buffer.set(new float[]{3, 1, 2});
+        buffer.getMax();
+        buffer.setCapacity(10);
+        buffer.clear();
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i);
+        }
+        assertExtremes(buffer);
+    }
+
+    @Test
+    public void appendKeepsExtremes() {
+        Random random = new Random(1);
+        FloatRingBuffer buffer = new FloatRingBuffer();
+        buffer.setCapacity(16);
+        for (int i = 0; i < 1000; i++) {
+            buffer.add(random.nextFloat() * 100);
+            assertExtremes(buffer);
+            if (i % 97 == 0) {
+                buffer.clear();
+            }
+        }
+    }
+
+    @Test
+    public void appendKeepsRangeExtremes() {
+        Random random = new Random(2);
+        FloatRingBuffer buffer = new FloatRingBuffer();
+        buffer.setCapacity(20);
+        for (int i = 0; i < 200; i++) {
+            buffer.add(random.nextFloat() * 100);
+            int from = random.nextInt(buffer.size());
+            int to = from + random.nextInt(buffer.size() - from);
+            assertEquals(scanMax(buffer, from, to), buffer.getMax(from, to), 0);
+            assertEquals(scanMin(buffer, from, to), buffer.getMin(from, to), 0);
+        }
+    }
+
+    /**
+     * Assert extremes of whole buffer
+     *
+     * @param buffer buffer
+     */
+    private static void assertExtremes(FloatRingBuffer buffer) {
+        assertEquals(scanMax(buffer, 0, buffer.size() - 1), buffer.getMax(), 0);
+        assertEquals(scanMin(buffer, 0, buffer.size() - 1), buffer.getMin(), 0);
+    }
+
+    /**
+     * Scan max value of index range
+     *
+     * @param series series
+     * @param from   first index
+     * @param to     last index, inclusive
+     * @return max value
+     */
+    static float scanMax(FloatSeries series, int from, int to) {
+        float max = series.get(from);
+        for (int i = from + 1; i <= to; i++) {
+            max = Math.max(max, series.get(i));
+        }
+        return max;
+    }
+
+    /**
+     * Scan min value of index range
+     *
+     * @param series series
+     * @param from   first index
+     * @param to     last index, inclusive
+     * @return min value
+     */
+    static float scanMin(FloatSeries series, int from, int to) {
+        float min = series.get(from);
+        for (int i = from + 1; i <= to; i++) {
+            min = Math.min(min, series.get(i));
+        }
+        return min;
+    }
+
+}
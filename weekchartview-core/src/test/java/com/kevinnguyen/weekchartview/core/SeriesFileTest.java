@@ -0,0 +1,326 @@
+package com.kevinnguyen.weekchartview.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * SeriesFileTest
+ * <p>
+ * Generated files are written, mapped again and compared with the generated values.
+ * Range queries are compared with a scan of the mapped values, and their heap allocations
+ * are compared between a small and a large file.
+ */
+public class SeriesFileTest {
+
+    // values of large file, 48 MB of columns
+    private static final int LARGE_COUNT = 4 * 1000 * 1000;
+
+    // values of small file, its block columns are still larger than tiny mappings, which allocate a bit less
+    private static final int SMALL_COUNT = 100 * 1000;
+
+    // measured opens of each file, the fewest allocated bytes are compared
+    private static final int ALLOCATION_RUNS = 20;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void writeAndOpen() throws IOException {
+        File file = mFolder.newFile();
+        long[] timestamps = {1000, 2000, 3000, 4000};
+        float[] values = {3, -1, 7.5f, 2};
+        SeriesFile.write(file, timestamps, values);
+
+        SeriesFile seriesFile = SeriesFile.open(file);
+        try {
+            FloatSeries series = seriesFile.getValues();
+            assertEquals(values.length, seriesFile.getCount());
+            assertEquals(values.length, series.size());
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(timestamps[i], seriesFile.getTimestamp(i));
+                assertEquals(timestamps[i], seriesFile.getTimestamps().get(i));
+                assertEquals(values[i], series.get(i), 0);
+            }
+            assertEquals(7.5f, series.getMax(), 0);
+            assertEquals(-1, series.getMin(), 0);
+        } finally {
+            seriesFile.close();
+        }
+    }
+
+    @Test
+    public void writeAndOpenEmpty() throws IOException {
+        File file = mFolder.newFile();
+        SeriesFile.write(file, new long[0], new float[0]);
+        SeriesFile seriesFile = SeriesFile.open(file);
+        try {
+            assertEquals(0, seriesFile.getCount());
+            assertEquals(0, seriesFile.getValues().size());
+        } finally {
+            seriesFile.close();
+        }
+    }
+
+    @Test
+    public void rangeQueriesMatchScan() throws IOException {
+        Random random = new Random(1);
+        // block counts which are no power of two and blocks of one value
+        int[][] cases = {{1, 1}, {7, 1}, {100, 3}, {1000, 7}, {1000, 1}, {10000, 64}, {12345, 1024}};
+        for (int[] testCase : cases) {
+            int count = testCase[0];
+            int blockSize = testCase[1];
+            File file = writeRandom(mFolder.newFile(), count, blockSize, random);
+            SeriesFile seriesFile = SeriesFile.open(file);
+            try {
+                FloatSeries series = seriesFile.getValues();
+                assertEquals(FloatRingBufferTest.scanMax(series, 0, count - 1), series.getMax(), 0);
+                assertEquals(FloatRingBufferTest.scanMin(series, 0, count - 1), series.getMin(), 0);
+                for (int i = 0; i < 500; i++) {
+                    int from = random.nextInt(count);
+                    int to = from + random.nextInt(count - from);
+                    assertRange(series, from, to);
+                }
+                assertRange(series, 0, count - 1);
+            } finally {
+                seriesFile.close();
+            }
+        }
+    }
+
+    @Test
+    public void largeFile() throws IOException {
+        Random random = new Random(2);
+        File file = writeRandom(mFolder.newFile(), LARGE_COUNT, SeriesFile.DEFAULT_BLOCK_SIZE, random);
+        assertEquals(32 + 12L * LARGE_COUNT + 16L * 3907, file.length());
+
+        SeriesFile seriesFile = SeriesFile.open(file);
+        try {
+            FloatSeries series = seriesFile.getValues();
+            assertEquals(LARGE_COUNT, series.size());
+            assertEquals(FloatRingBufferTest.scanMax(series, 0, LARGE_COUNT - 1), series.getMax(), 0);
+            assertEquals(FloatRingBufferTest.scanMin(series, 0, LARGE_COUNT - 1), series.getMin(), 0);
+            for (int i = 0; i < 20; i++) {
+                int from = random.nextInt(LARGE_COUNT);
+                int to = from + random.nextInt(LARGE_COUNT - from);
+                assertRange(series, from, to);
+            }
+            assertEquals(LARGE_COUNT - 1, seriesFile.getTimestamp(LARGE_COUNT - 1));
+        } finally {
+            seriesFile.close();
+        }
+    }
+
+    @Test
+    public void openAndScaleAllocationDoesNotDependOnSize() throws IOException {
+        Random random = new Random(8);
+        // same name length, so both paths allocate the same
+        File small = writeRandom(mFolder.newFile("small.series"), SMALL_COUNT, SeriesFile.DEFAULT_BLOCK_SIZE, random);
+        File large = writeRandom(mFolder.newFile("large.series"), LARGE_COUNT, SeriesFile.DEFAULT_BLOCK_SIZE, random);
+
+        // warm up both sizes before measuring
+        getOpenAndScaleBytes(small);
+        getOpenAndScaleBytes(large);
+        long smallBytes = getOpenAndScaleBytes(small);
+        long largeBytes = getOpenAndScaleBytes(large);
+        assertEquals(smallBytes, largeBytes);
+    }
+
+    @Test
+    public void rejectsShortFile() throws IOException {
+        File file = mFolder.newFile();
+        writeBytes(file, new byte[10]);
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void rejectsWrongMagic() throws IOException {
+        File file = writeRandom(mFolder.newFile(), 10, 4, new Random(3));
+        patchInt(file, 0, 0x12345678);
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void rejectsWrongVersion() throws IOException {
+        File file = writeRandom(mFolder.newFile(), 10, 4, new Random(4));
+        patchInt(file, 4, 99);
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void rejectsTruncatedFile() throws IOException {
+        File file = writeRandom(mFolder.newFile(), 100, 10, new Random(5));
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(randomAccessFile.length() - 4);
+        } finally {
+            randomAccessFile.close();
+        }
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void rejectsWrongCountAndBlockSize() throws IOException {
+        File file = writeRandom(mFolder.newFile(), 10, 4, new Random(6));
+        patchInt(file, 8, 1000);
+        assertOpenFails(file);
+        patchInt(file, 8, 10);
+        patchInt(file, 12, 0);
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void rejectsFileWhileItIsReplaced() throws IOException {
+        File file = writeRandom(mFolder.newFile(), 3, 4, new Random(7));
+        SeriesFile.Writer writer = new SeriesFile.Writer(file, 100000);
+        try {
+            writer.add(1, 5);
+            assertOpenFails(file);
+        } finally {
+            try {
+                writer.close();
+                fail("writer of missing values is closed");
+            } catch (IOException expected) {
+                // not all values are written
+            }
+        }
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void writerRejectsTooManyValues() throws IOException {
+        SeriesFile.Writer writer = new SeriesFile.Writer(mFolder.newFile(), 1);
+        writer.add(1, 1);
+        try {
+            writer.add(2, 2);
+            fail("value beyond count is added");
+        } catch (IllegalStateException expected) {
+            // count is reached
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Write random values, timestamp of every value is its index
+     *
+     * @param file      file
+     * @param count     count
+     * @param blockSize block size
+     * @param random    random
+     * @return file
+     * @throws IOException if file can not be written
+     */
+    private static File writeRandom(File file, int count, int blockSize, Random random) throws IOException {
+        SeriesFile.Writer writer = new SeriesFile.Writer(file, count, blockSize);
+        try {
+            for (int i = 0; i < count; i++) {
+                writer.add(i, random.nextFloat() * 2000 - 1000);
+            }
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    /**
+     * Get fewest heap bytes allocated by opening file and scaling its whole range and a window of it
+     *
+     * @param file file
+     * @return allocated bytes
+     * @throws IOException if file can not be opened
+     */
+    private static long getOpenAndScaleBytes(File file) throws IOException {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long fewest = Long.MAX_VALUE;
+        float sum = 0;
+        for (int i = 0; i < ALLOCATION_RUNS; i++) {
+            long start = bean.getThreadAllocatedBytes(threadId);
+            SeriesFile seriesFile = SeriesFile.open(file);
+            try {
+                FloatSeries series = seriesFile.getValues();
+                int count = series.size();
+                sum += series.getMax(0, count - 1) - series.getMin(0, count - 1);
+                sum += series.getMax(count / 3, count - count / 4) - series.getMin(count / 3, count - count / 4);
+            } finally {
+                seriesFile.close();
+            }
+            fewest = Math.min(fewest, bean.getThreadAllocatedBytes(threadId) - start);
+        }
+        // extremes are used, so queries are not removed
+        assertTrue(sum >= 0);
+        return fewest;
+    }
+
+    /**
+     * Assert range extremes against scan
+     *
+     * @param series series
+     * @param from   first index
+     * @param to     last index, inclusive
+     */
+    private static void assertRange(FloatSeries series, int from, int to) {
+        assertEquals(FloatRingBufferTest.scanMax(series, from, to), series.getMax(from, to), 0);
+        assertEquals(FloatRingBufferTest.scanMin(series, from, to), series.getMin(from, to), 0);
+    }
+
+    /**
+     * Assert that file is not opened
+     *
+     * @param file file
+     */
+    private static void assertOpenFails(File file) {
+        try {
+            SeriesFile.open(file).close();
+            fail("broken file is opened");
+        } catch (IOException expected) {
+            // file is rejected
+        }
+    }
+
+    /**
+     * Write little endian int into file
+     *
+     * @param file     file
+     * @param position position
+     * @param value    value
+     * @throws IOException if file can not be written
+     */
+    private static void patchInt(File file, long position, int value) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.seek(position);
+            randomAccessFile.writeInt(Integer.reverseBytes(value));
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Write bytes into file
+     *
+     * @param file  file
+     * @param bytes bytes
+     * @throws IOException if file can not be written
+     */
+    private static void writeBytes(File file, byte[] bytes) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.write(bytes);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+}